@@ -0,0 +1,65 @@
+package com.shino.vnpt.benchmark;
+
+import com.shino.vnpt.features.image.utils.HashUtils;
+import org.apache.commons.io.input.CountingInputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Đường lưu ảnh: Base64 toàn bộ file (cách lưu cũ) so với băm + đếm byte khi stream vào storage (saveImage hiện tại).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ImageEncodingBenchmark {
+    @Param({"65536", "1048576", "5242880"})
+    private int size;
+
+    private byte[] bytes;
+
+    @Setup
+    public void setUp() {
+        bytes = new byte[size];
+        new Random(42).nextBytes(bytes);
+    }
+
+    @Benchmark
+    public String base64Encode() {
+        return Base64.getEncoder().encodeToString(bytes);
+    }
+
+    @Benchmark
+    public byte[] base64RoundTrip() {
+        return Base64.getDecoder().decode(Base64.getEncoder().encodeToString(bytes));
+    }
+
+    @Benchmark
+    public String streamDigest() throws IOException {
+        MessageDigest messageDigest = HashUtils.newSha256();
+        try (CountingInputStream inputStream = new CountingInputStream(new DigestInputStream(new ByteArrayInputStream(bytes), messageDigest))) {
+            inputStream.transferTo(OutputStream.nullOutputStream());
+        }
+        return HashUtils.toHex(messageDigest);
+    }
+}
@@ -0,0 +1,79 @@
+package com.shino.vnpt.benchmark;
+
+import com.shino.vnpt.features.image.dto.ProcessedImage;
+import com.shino.vnpt.features.image.utils.ImageProcessor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Nén lại và resize ảnh PNG/JPEG ở nhiều kích thước, dùng ImageProcessor như job xử lý ảnh.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ImageProcessorBenchmark {
+    @Param({"png", "jpeg"})
+    private String format;
+
+    @Param({"640", "1920", "4000"})
+    private int width;
+
+    private final ImageProcessor imageProcessor = new ImageProcessor(new SimpleMeterRegistry(), 0.7f, 2560);
+    private byte[] bytes;
+    private String contentType;
+
+    @Setup
+    public void setUp() throws IOException {
+        int height = width * 3 / 4;
+        BufferedImage image = new BufferedImage(width, height,
+                "png".equals(format) ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setPaint(new GradientPaint(0, 0, Color.BLUE, width, height, Color.ORANGE));
+        graphics.fillRect(0, 0, width, height);
+        Random random = new Random(42);
+        for (int i = 0; i < 200; i++) {
+            graphics.setColor(new Color(random.nextInt(0x1000000)));
+            graphics.fillOval(random.nextInt(width), random.nextInt(height), width / 10, height / 10);
+        }
+        graphics.dispose();
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ImageIO.write(image, format, outputStream);
+        bytes = outputStream.toByteArray();
+        contentType = "image/" + format;
+    }
+
+    @Benchmark
+    public ProcessedImage processImage() throws IOException {
+        return imageProcessor.processImage(new ByteArrayInputStream(bytes), contentType);
+    }
+
+    @Benchmark
+    public ProcessedImage resizeToMedium() throws IOException {
+        return imageProcessor.resizeImage(new ByteArrayInputStream(bytes), 480);
+    }
+}
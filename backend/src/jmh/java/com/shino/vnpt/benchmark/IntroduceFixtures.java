@@ -0,0 +1,41 @@
+package com.shino.vnpt.benchmark;
+
+import com.shino.vnpt.features.introduce.document.IntroduceDocument;
+import com.shino.vnpt.features.introduce.enums.Status;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Dữ liệu giả lập cho benchmark, thay cho MongoDB: sinh cố định theo seed để các lần chạy so sánh được.
+ */
+final class IntroduceFixtures {
+    private static final String[] TAGS = {"Production", "Development", "Testing", "Internal"};
+
+    private IntroduceFixtures() {
+    }
+
+    static List<IntroduceDocument> introduces(int count) {
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<IntroduceDocument> documents = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String tag = TAGS[random.nextInt(TAGS.length)];
+            IntroduceDocument document = new IntroduceDocument();
+            document.setId(String.format("%024x", i));
+            document.setTitle("PROJECT " + Integer.toString(random.nextInt(1_000_000), 36).toUpperCase());
+            document.setDescription("Mô tả dự án số " + i + " dùng cho benchmark, đủ dài để giống dữ liệu thật trên trang giới thiệu.");
+            document.setTag(tag);
+            document.setImageId(String.format("%024x", 1_000_000 + i));
+            document.setUrl("https://example.vnpt.vn/projects/" + i);
+            document.setCreateAt(now.minusDays(i));
+            document.setModifiedAt(now.minusHours(i));
+            document.setStatus(i % 10 == 0 ? Status.INACTIVE : Status.ACTIVE);
+            document.setPriority(IntroduceDocument.priorityOf(tag));
+            documents.add(document);
+        }
+        return documents;
+    }
+}
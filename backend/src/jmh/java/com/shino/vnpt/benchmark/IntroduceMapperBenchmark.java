@@ -0,0 +1,63 @@
+package com.shino.vnpt.benchmark;
+
+import com.shino.vnpt.features.introduce.document.IntroduceDocument;
+import com.shino.vnpt.features.introduce.dto.request.IntroduceCreateRequest;
+import com.shino.vnpt.features.introduce.dto.response.GetAllResponse;
+import com.shino.vnpt.features.introduce.enums.Status;
+import com.shino.vnpt.features.introduce.mapper.IntroduceMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IntroduceMapperBenchmark {
+    private final IntroduceMapper introduceMapper = IntroduceMapper.introduceMapper;
+
+    private IntroduceCreateRequest createRequest;
+    private IntroduceDocument document;
+    private List<IntroduceDocument> documents;
+
+    @Setup
+    public void setUp() {
+        documents = IntroduceFixtures.introduces(1000);
+        document = documents.get(0);
+
+        createRequest = new IntroduceCreateRequest();
+        createRequest.setTitle(document.getTitle());
+        createRequest.setDescription(document.getDescription());
+        createRequest.setTag(document.getTag());
+        createRequest.setUrl(document.getUrl());
+        createRequest.setStatus(Status.ACTIVE);
+    }
+
+    @Benchmark
+    public IntroduceDocument toIntroduceDocument() {
+        return introduceMapper.toIntroduceDocument(createRequest);
+    }
+
+    @Benchmark
+    public GetAllResponse toGetAllResponse() {
+        return introduceMapper.toGetAllResponse(document);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<GetAllResponse> toGetAllResponseList() {
+        return documents.stream().map(introduceMapper::toGetAllResponse).toList();
+    }
+}
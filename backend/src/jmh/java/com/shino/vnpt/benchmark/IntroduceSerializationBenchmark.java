@@ -0,0 +1,65 @@
+package com.shino.vnpt.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shino.vnpt.features.introduce.cache.IntroduceListCache;
+import com.shino.vnpt.features.introduce.cache.IntroduceListSnapshot;
+import com.shino.vnpt.features.introduce.document.IntroduceDocument;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialize danh sách introduce bằng ObjectMapper cấu hình như Spring Boot, và dựng lại snapshot của
+ * IntroduceListCache (JSON + gzip + ETag) với danh sách trong bộ nhớ thay cho repository.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IntroduceSerializationBenchmark {
+    @Param({"100", "1000", "5000"})
+    private int size;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private List<IntroduceDocument> documents;
+    private IntroduceListCache introduceListCache;
+
+    @Setup
+    public void setUp() {
+        documents = IntroduceFixtures.introduces(size);
+        introduceListCache = new IntroduceListCache(new SimpleMeterRegistry(), objectMapper, Duration.ofMinutes(5), Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public byte[] writeJson() throws IOException {
+        return objectMapper.writeValueAsBytes(documents);
+    }
+
+    @Benchmark
+    public IntroduceListSnapshot rebuildSnapshot() {
+        introduceListCache.invalidate();
+        return introduceListCache.getSnapshot(() -> documents);
+    }
+
+    @Benchmark
+    public IntroduceListSnapshot cachedSnapshot() {
+        return introduceListCache.getSnapshot(() -> documents);
+    }
+}
@@ -0,0 +1,57 @@
+package com.shino.vnpt.benchmark;
+
+import com.shino.vnpt.features.introduce.document.IntroduceDocument;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thứ tự của getAllIntroduce: comparator cũ (so sánh tag mỗi lần) và comparator theo priority đã chuẩn hóa.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IntroduceSortBenchmark {
+    private static final Comparator<IntroduceDocument> TAG_COMPARATOR = Comparator
+            .comparing((IntroduceDocument doc) -> !IntroduceDocument.PRODUCTION_TAG.equalsIgnoreCase(doc.getTag()))
+            .thenComparing(IntroduceDocument::getTitle, String.CASE_INSENSITIVE_ORDER);
+
+    private static final Comparator<IntroduceDocument> PRIORITY_COMPARATOR = Comparator
+            .comparing(IntroduceDocument::getPriority)
+            .thenComparing(IntroduceDocument::getTitle);
+
+    @Param({"100", "1000", "10000"})
+    private int size;
+
+    private List<IntroduceDocument> documents;
+
+    @Setup
+    public void setUp() {
+        documents = IntroduceFixtures.introduces(size);
+    }
+
+    @Benchmark
+    public List<IntroduceDocument> sortByTag() {
+        return documents.stream().sorted(TAG_COMPARATOR).toList();
+    }
+
+    @Benchmark
+    public List<IntroduceDocument> sortByPriority() {
+        return documents.stream().sorted(PRIORITY_COMPARATOR).toList();
+    }
+}
@@ -0,0 +1,74 @@
+package com.shino.vnpt.loadtest;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.flapdoodle.embed.mongo.config.MongodArguments;
+import de.flapdoodle.embed.mongo.config.Storage;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+import de.flapdoodle.reverse.transitions.Start;
+import org.bson.Document;
+
+import java.util.List;
+
+/**
+ * mongod chạy cục bộ cho load test. Bản phân phối được flapdoodle cache trong ~/.embedmongo,
+ * nên chỉ lần chạy đầu cần tải; có thể dùng mongod sẵn có qua -Dloadtest.mongo-uri.
+ * Transaction cần replica set: khi đó chạy replica set một node.
+ */
+public class EmbeddedMongo implements AutoCloseable {
+    private static final String REPLICA_SET = "rs0";
+
+    private final TransitionWalker.ReachedState<RunningMongodProcess> running;
+
+    public EmbeddedMongo() {
+        this(false);
+    }
+
+    public EmbeddedMongo(boolean replicaSet) {
+        if (!replicaSet) {
+            this.running = Mongod.instance().start(Version.Main.V6_0);
+            return;
+        }
+        this.running = Mongod.instance()
+                .withMongodArguments(Start.to(MongodArguments.class).initializedWith(MongodArguments.defaults()
+                        .withUseNoJournal(false)
+                        .withReplication(Storage.of(REPLICA_SET, 0))))
+                .start(Version.Main.V6_0);
+        initiateReplicaSet();
+    }
+
+    public String getHost() {
+        return running.current().getServerAddress().getHost();
+    }
+
+    public int getPort() {
+        return running.current().getServerAddress().getPort();
+    }
+
+    private void initiateReplicaSet() {
+        String member = getHost() + ":" + getPort();
+        try (MongoClient client = MongoClients.create("mongodb://" + member + "/?directConnection=true")) {
+            client.getDatabase("admin").runCommand(new Document("replSetInitiate", new Document("_id", REPLICA_SET)
+                    .append("members", List.of(new Document("_id", 0).append("host", member)))));
+
+            long deadline = System.nanoTime() + 30_000_000_000L;
+            while (!client.getDatabase("admin").runCommand(new Document("hello", 1)).getBoolean("isWritablePrimary", false)) {
+                if (System.nanoTime() > deadline) {
+                    throw new IllegalStateException("Replica set " + REPLICA_SET + " did not elect a primary");
+                }
+                Thread.sleep(200);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while initiating replica set", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        running.close();
+    }
+}
@@ -0,0 +1,81 @@
+package com.shino.vnpt.loadtest;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Thay Keycloak khi chạy load test: tự sinh khóa RSA, phát JWKS qua HTTP ở đúng đường dẫn realm của Keycloak
+ * và ký token có realm_access.roles như token thật.
+ */
+public class JwtIssuerStub implements AutoCloseable {
+    public static final String REALM = "loadtest";
+
+    private final RSAKey rsaKey;
+    private final HttpServer httpServer;
+
+    public JwtIssuerStub() throws IOException, JOSEException {
+        this.rsaKey = new RSAKeyGenerator(2048).keyID(UUID.randomUUID().toString()).generate();
+        byte[] jwks = new JWKSet(rsaKey.toPublicJWK()).toString().getBytes(StandardCharsets.UTF_8);
+
+        this.httpServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        httpServer.createContext("/realms/" + REALM + "/protocol/openid-connect/certs", exchange -> {
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, jwks.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(jwks);
+            }
+        });
+        httpServer.start();
+    }
+
+    public String getAuthServerUrl() {
+        return "http://127.0.0.1:" + httpServer.getAddress().getPort();
+    }
+
+    public String getIssuer() {
+        return getAuthServerUrl() + "/realms/" + REALM;
+    }
+
+    public String issueToken(String subject, List<String> roles, Duration lifetime) {
+        Instant now = Instant.now();
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .issuer(getIssuer())
+                .subject(subject)
+                .jwtID(UUID.randomUUID().toString())
+                .issueTime(Date.from(now))
+                .expirationTime(Date.from(now.plus(lifetime)))
+                .claim("realm_access", Map.of("roles", roles))
+                .build();
+        try {
+            SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(rsaKey.getKeyID()).build(), claims);
+            jwt.sign(new RSASSASigner(rsaKey));
+            return jwt.serialize();
+        } catch (JOSEException e) {
+            throw new IllegalStateException("Could not sign load test token", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        httpServer.stop(0);
+    }
+}
@@ -0,0 +1,89 @@
+package com.shino.vnpt.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+/**
+ * Proxy TCP giả lập MongoDB chậm: mỗi gói từ ứng dụng gửi tới mongod bị giữ lại latencyMillis
+ * trước khi chuyển tiếp, nên mỗi lệnh chậm đi khoảng chừng đó.
+ */
+public class LatencyProxy implements AutoCloseable {
+    private final ServerSocket serverSocket;
+    private final String targetHost;
+    private final int targetPort;
+    private final long latencyMillis;
+
+    public LatencyProxy(String targetHost, int targetPort, long latencyMillis) throws IOException {
+        this.serverSocket = new ServerSocket(0, 512, InetAddress.getLoopbackAddress());
+        this.targetHost = targetHost;
+        this.targetPort = targetPort;
+        this.latencyMillis = latencyMillis;
+
+        Thread acceptor = new Thread(this::acceptLoop, "latency-proxy-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket client = serverSocket.accept();
+                Socket target = new Socket(targetHost, targetPort);
+                client.setTcpNoDelay(true);
+                target.setTcpNoDelay(true);
+                pump(client, target, latencyMillis);
+                pump(target, client, 0);
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    System.err.println("Latency proxy accept failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static void pump(Socket from, Socket to, long delayMillis) {
+        Thread thread = new Thread(() -> {
+            byte[] buffer = new byte[16 * 1024];
+            try (InputStream inputStream = from.getInputStream(); OutputStream outputStream = to.getOutputStream()) {
+                int read;
+                while ((read = inputStream.read(buffer)) != -1) {
+                    if (delayMillis > 0) {
+                        Thread.sleep(delayMillis);
+                    }
+                    outputStream.write(buffer, 0, read);
+                    outputStream.flush();
+                }
+            } catch (IOException e) {
+                // Một phía đóng kết nối
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                closeQuietly(from);
+                closeQuietly(to);
+            }
+        }, "latency-proxy-pump");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+            // Đã đóng
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+    }
+}
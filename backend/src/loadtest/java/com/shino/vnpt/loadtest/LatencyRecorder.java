@@ -0,0 +1,71 @@
+package com.shino.vnpt.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gom độ trễ theo endpoint (nano giây), tính throughput và percentile khi kết thúc.
+ */
+public class LatencyRecorder {
+    private static final double[] PERCENTILES = {50, 90, 95, 99, 99.9};
+
+    private final Map<String, EndpointSamples> samples = new ConcurrentHashMap<>();
+
+    public void record(String endpoint, long latencyNanos, boolean success) {
+        samples.computeIfAbsent(endpoint, key -> new EndpointSamples()).add(latencyNanos, success);
+    }
+
+    public List<Map<String, Object>> summarize(long elapsedNanos) {
+        double elapsedSeconds = elapsedNanos / 1_000_000_000.0;
+        return samples.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .map(entry -> entry.getValue().summarize(entry.getKey(), elapsedSeconds))
+                .toList();
+    }
+
+    private static class EndpointSamples {
+        private long[] latencies = new long[1024];
+        private int count;
+        private long errors;
+
+        synchronized void add(long latencyNanos, boolean success) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latencyNanos;
+            if (!success) {
+                errors++;
+            }
+        }
+
+        synchronized Map<String, Object> summarize(String endpoint, double elapsedSeconds) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("endpoint", endpoint);
+            summary.put("requests", count);
+            summary.put("errors", errors);
+            summary.put("throughputPerSecond", round(count / elapsedSeconds));
+            summary.put("meanMs", count == 0 ? 0 : round(toMillis(Arrays.stream(sorted).average().orElse(0))));
+            for (double percentile : PERCENTILES) {
+                summary.put("p" + (percentile % 1 == 0 ? String.valueOf((int) percentile) : String.valueOf(percentile)) + "Ms",
+                        count == 0 ? 0 : round(toMillis(sorted[(int) Math.min(count - 1, Math.ceil(percentile / 100 * count) - 1)])));
+            }
+            summary.put("maxMs", count == 0 ? 0 : round(toMillis(sorted[count - 1])));
+            return summary;
+        }
+
+        private static double toMillis(double nanos) {
+            return nanos / TimeUnit.MILLISECONDS.toNanos(1);
+        }
+
+        private static double round(double value) {
+            return Math.round(value * 100) / 100.0;
+        }
+    }
+}
@@ -0,0 +1,400 @@
+package com.shino.vnpt.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.mongodb.ConnectionString;
+import com.mongodb.client.model.Filters;
+import com.shino.vnpt.VnptApplication;
+import org.bson.types.ObjectId;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Load test đầu-cuối: bật ứng dụng với MongoDB nhúng và {@link JwtIssuerStub} thay Keycloak, seed dữ liệu,
+ * rồi cho nhiều user ảo chạy hỗn hợp đọc/ghi và in throughput, percentile độ trễ theo endpoint.
+ * Có thể làm chậm MongoDB (proxy trễ) và thêm client đọc chậm để so sánh chế độ thread pool với virtual thread:
+ *
+ * <pre>
+ * mvn -Ploadtest verify -Dloadtest.tomcat-max-threads=50 -Dloadtest.mongo-latency-ms=20 -Dloadtest.slow-clients=100
+ * mvn -Ploadtest verify -Dloadtest.tomcat-max-threads=50 -Dloadtest.mongo-latency-ms=20 -Dloadtest.slow-clients=100 \
+ *     -Dloadtest.virtual-threads=true -Dloadtest.compare-with=target/loadtest-report-thread-pool.json
+ * </pre>
+ *
+ * So sánh tạo introduce kèm ảnh bằng bù trừ (mặc định) với transaction MongoDB, trên mix nhiều thao tác tạo:
+ *
+ * <pre>
+ * mvn -Ploadtest verify -Dloadtest.create-share=0.3
+ * mvn -Ploadtest verify -Dloadtest.create-share=0.3 -Dloadtest.create-mode=transaction \
+ *     -Dloadtest.compare-with=target/loadtest-report-thread-pool.json
+ * </pre>
+ */
+public class LoadTestRunner {
+    private final int users = Integer.getInteger("loadtest.users", 32);
+    private final Duration warmup = Duration.parse(System.getProperty("loadtest.warmup", "PT15S"));
+    private final Duration duration = Duration.parse(System.getProperty("loadtest.duration", "PT60S"));
+    private final int seedIntroduces = Integer.getInteger("loadtest.seed-introduces", 200);
+    private final String mongoUri = System.getProperty("loadtest.mongo-uri", "");
+    private final boolean virtualThreads = Boolean.getBoolean("loadtest.virtual-threads");
+    private final int tomcatMaxThreads = Integer.getInteger("loadtest.tomcat-max-threads", 200);
+    private final long mongoLatencyMillis = Long.getLong("loadtest.mongo-latency-ms", 0);
+    private final int slowClients = Integer.getInteger("loadtest.slow-clients", 0);
+    private final long slowClientBytesPerSecond = Long.getLong("loadtest.slow-client-bytes-per-second", 8192);
+    // compensate: bù trừ khi lưu introduce lỗi; transaction: transaction MongoDB (replica set)
+    private final String createMode = System.getProperty("loadtest.create-mode", "compensate");
+    private final boolean transactional = "transaction".equalsIgnoreCase(createMode);
+    private final double createShare = Double.parseDouble(System.getProperty("loadtest.create-share", "0.015"));
+    private final String mode = (virtualThreads ? "virtual-threads" : "thread-pool") + (transactional ? "-transaction" : "");
+    private final File reportFile = new File(System.getProperty("loadtest.report", "target/loadtest-report-" + mode + ".json"));
+    private final String compareWith = System.getProperty("loadtest.compare-with", "");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final AtomicInteger createdCounter = new AtomicInteger();
+    private final List<String> introduceIds = new CopyOnWriteArrayList<>();
+    private final List<String> imageIds = new CopyOnWriteArrayList<>();
+    private final AtomicReference<String> listingEtag = new AtomicReference<>();
+
+    private String baseUrl;
+    private String adminToken;
+
+    public static void main(String[] args) throws Exception {
+        new LoadTestRunner().run();
+        System.exit(0);
+    }
+
+    private void run() throws Exception {
+        try (JwtIssuerStub issuer = new JwtIssuerStub();
+             EmbeddedMongo embeddedMongo = mongoUri.isBlank() ? new EmbeddedMongo(transactional) : null;
+             LatencyProxy latencyProxy = mongoLatencyMillis > 0 ? startLatencyProxy(embeddedMongo) : null;
+             ConfigurableApplicationContext context = startApplication(issuer, mongoConnectionString(embeddedMongo, latencyProxy))) {
+            baseUrl = "http://127.0.0.1:" + context.getEnvironment().getProperty("local.server.port");
+            adminToken = issuer.issueToken("loadtest-admin", List.of("admin"), duration.plus(warmup).plusMinutes(10));
+
+            seed();
+            runPhase(warmup, new LatencyRecorder());
+
+            LatencyRecorder recorder = new LatencyRecorder();
+            long elapsedNanos = runPhase(duration, recorder);
+            List<Map<String, Object>> summary = recorder.summarize(elapsedNanos);
+            long orphanedImages = countOrphanedImages(context);
+            report(summary, elapsedNanos, orphanedImages);
+            if (!compareWith.isBlank()) {
+                compare(summary, orphanedImages, new File(compareWith));
+            }
+        }
+    }
+
+    private LatencyProxy startLatencyProxy(EmbeddedMongo embeddedMongo) throws IOException {
+        if (embeddedMongo != null) {
+            return new LatencyProxy(embeddedMongo.getHost(), embeddedMongo.getPort(), mongoLatencyMillis);
+        }
+        ConnectionString connectionString = new ConnectionString(mongoUri);
+        String[] hostAndPort = connectionString.getHosts().get(0).split(":");
+        return new LatencyProxy(hostAndPort[0], hostAndPort.length > 1 ? Integer.parseInt(hostAndPort[1]) : 27017, mongoLatencyMillis);
+    }
+
+    private String mongoConnectionString(EmbeddedMongo embeddedMongo, LatencyProxy latencyProxy) {
+        if (latencyProxy != null) {
+            return "mongodb://127.0.0.1:" + latencyProxy.getPort() + "/introduce_loadtest?directConnection=true";
+        }
+        if (embeddedMongo != null) {
+            return "mongodb://" + embeddedMongo.getHost() + ":" + embeddedMongo.getPort() + "/introduce_loadtest?directConnection=true";
+        }
+        return mongoUri;
+    }
+
+    private ConfigurableApplicationContext startApplication(JwtIssuerStub issuer, String mongoConnectionString) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("server.port", 0);
+        properties.put("server.tomcat.threads.max", tomcatMaxThreads);
+        properties.put("execution.virtual-threads.enabled", virtualThreads);
+        properties.put("mongo.transactions.enabled", transactional);
+        properties.put("spring.application.name", "introduce-loadtest");
+        properties.put("spring.data.mongodb.uri", mongoConnectionString);
+        properties.put("keycloak.auth-server-url", issuer.getAuthServerUrl());
+        properties.put("keycloak.realm", JwtIssuerStub.REALM);
+        properties.put("keycloak.resource", "introduce-loadtest");
+        properties.put("spring.security.oauth2.resourceserver.jwt.issuer-uri", issuer.getIssuer());
+        // Job nền không thuộc kịch bản đo
+        properties.put("image.gc.enabled", false);
+        properties.put("image.storage.migration.enabled", false);
+        return new SpringApplicationBuilder(VnptApplication.class).properties(properties).run();
+    }
+
+    private void seed() throws Exception {
+        for (int i = 0; i < seedIntroduces; i++) {
+            createIntroduce();
+        }
+        System.out.printf("Seeded %d introduces%n", introduceIds.size());
+    }
+
+    private long runPhase(Duration phase, LatencyRecorder recorder) throws InterruptedException {
+        long deadline = System.nanoTime() + phase.toNanos();
+        CountDownLatch done = new CountDownLatch(users);
+        long startedAt = System.nanoTime();
+        int port = URI.create(baseUrl).getPort();
+        for (int i = 0; i < slowClients; i++) {
+            Thread slowClient = new Thread(new SlowClient(port, () -> "/api/v1/image/raw/" + randomImageId(), slowClientBytesPerSecond, deadline, recorder),
+                    "loadtest-slow-client-" + i);
+            slowClient.setDaemon(true);
+            slowClient.start();
+        }
+        for (int i = 0; i < users; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    while (System.nanoTime() < deadline) {
+                        runOperation(recorder);
+                    }
+                } finally {
+                    done.countDown();
+                }
+            }, "loadtest-user-" + i);
+            thread.start();
+        }
+        done.await();
+        return System.nanoTime() - startedAt;
+    }
+
+    // Tỉ lệ theo trang giới thiệu: chủ yếu đọc danh sách và ảnh, thỉnh thoảng admin ghi (tạo mới theo loadtest.create-share)
+    private void runOperation(LatencyRecorder recorder) {
+        if (ThreadLocalRandom.current().nextDouble() < createShare) {
+            timed(recorder, "POST /admin/introduce/create", this::createIntroduce);
+            return;
+        }
+        int roll = ThreadLocalRandom.current().nextInt(985);
+        if (roll < 400) {
+            timed(recorder, "GET /introduce/all", this::getListing);
+        } else if (roll < 550) {
+            timed(recorder, "GET /introduce/all (If-None-Match)", this::revalidateListing);
+        } else if (roll < 800) {
+            timed(recorder, "GET /image/raw/{id}", this::getImage);
+        } else if (roll < 900) {
+            timed(recorder, "GET /introduce/list", () -> get("/api/v1/introduce/list?limit=20"));
+        } else if (roll < 960) {
+            timed(recorder, "GET /introduce/all-with-images", () -> get("/api/v1/introduce/all-with-images"));
+        } else {
+            timed(recorder, "PUT /admin/introduce/update-status/{id}", this::updateStatus);
+        }
+    }
+
+    private void timed(LatencyRecorder recorder, String endpoint, Operation operation) {
+        long startedAt = System.nanoTime();
+        boolean success;
+        try {
+            int status = operation.execute();
+            success = status < 400;
+        } catch (Exception e) {
+            success = false;
+        }
+        recorder.record(endpoint, System.nanoTime() - startedAt, success);
+    }
+
+    private int get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private int getListing() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/introduce/all"))
+                .header("Accept-Encoding", "gzip")
+                .GET()
+                .build();
+        HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        response.headers().firstValue("ETag").ifPresent(listingEtag::set);
+        return response.statusCode();
+    }
+
+    private int revalidateListing() throws IOException, InterruptedException {
+        String etag = listingEtag.get();
+        if (etag == null) {
+            return getListing();
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/introduce/all"))
+                .header("Accept-Encoding", "gzip")
+                .header("If-None-Match", etag)
+                .GET()
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private int getImage() throws IOException, InterruptedException {
+        return get("/api/v1/image/raw/" + randomImageId() + "?variant=md");
+    }
+
+    private String randomImageId() {
+        return imageIds.get(ThreadLocalRandom.current().nextInt(imageIds.size()));
+    }
+
+    private int updateStatus() throws IOException, InterruptedException {
+        String introduceId = introduceIds.get(ThreadLocalRandom.current().nextInt(introduceIds.size()));
+        String status = ThreadLocalRandom.current().nextInt(10) == 0 ? "INACTIVE" : "ACTIVE";
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/admin/introduce/update-status/" + introduceId + "?status=" + status))
+                .header("Authorization", "Bearer " + adminToken)
+                .PUT(HttpRequest.BodyPublishers.noBody())
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private int createIntroduce() throws IOException, InterruptedException {
+        int number = createdCounter.incrementAndGet();
+        String boundary = "loadtest-" + UUID.randomUUID();
+        MultipartBody body = new MultipartBody(boundary)
+                .field("title", "Load test project " + number)
+                .field("description", "Generated by the load test harness")
+                .field("tag", number % 4 == 0 ? "Production" : "Development")
+                .field("url", "https://example.com/projects/" + number)
+                .field("status", "ACTIVE")
+                .file("file", "project-" + number + ".png", "image/png", randomPng());
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/admin/introduce/create"))
+                .header("Authorization", "Bearer " + adminToken)
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+                .build();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() == 200) {
+            JsonNode created = objectMapper.readTree(response.body());
+            introduceIds.add(created.path("id").asText());
+            imageIds.add(created.path("imageId").asText());
+        }
+        return response.statusCode();
+    }
+
+    // Mỗi ảnh khác nội dung để không bị dedup theo hash
+    private static byte[] randomPng() throws IOException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int width = 800 + random.nextInt(400);
+        int height = 600;
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        int baseColor = random.nextInt(0x1000000);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, baseColor ^ ((x * y) & 0xFFFF));
+            }
+        }
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", outputStream);
+        return outputStream.toByteArray();
+    }
+
+    // Ảnh không introduce nào tham chiếu: tạo introduce lỗi giữa chừng mà không được bù trừ/rollback
+    private long countOrphanedImages(ConfigurableApplicationContext context) {
+        MongoTemplate mongoTemplate = context.getBean(MongoTemplate.class);
+        List<ObjectId> referenced = mongoTemplate.findDistinct(new Query(), "imageId", "introduce", String.class).stream()
+                .filter(ObjectId::isValid)
+                .map(ObjectId::new)
+                .toList();
+        return mongoTemplate.getCollection("images").countDocuments(Filters.nin("_id", referenced));
+    }
+
+    private void report(List<Map<String, Object>> summary, long elapsedNanos, long orphanedImages) throws IOException {
+        System.out.printf("%nLoad test (%s, create mode %s, create share %.3f, tomcat max threads %d, mongo latency %dms, %d slow clients): %d users, %.1fs%n",
+                mode, createMode, createShare, tomcatMaxThreads, mongoLatencyMillis, slowClients, users, elapsedNanos / 1_000_000_000.0);
+        System.out.printf("%-42s %9s %7s %9s %8s %8s %8s %8s %8s%n", "endpoint", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Map<String, Object> row : summary) {
+            System.out.printf("%-42s %9s %7s %9s %8s %8s %8s %8s %8s%n", row.get("endpoint"), row.get("requests"), row.get("errors"),
+                    row.get("throughputPerSecond"), row.get("p50Ms"), row.get("p90Ms"), row.get("p99Ms"), row.get("p99.9Ms"), row.get("maxMs"));
+        }
+
+        Map<String, Object> document = new HashMap<>();
+        document.put("mode", mode);
+        document.put("createMode", createMode);
+        document.put("createShare", createShare);
+        document.put("orphanedImages", orphanedImages);
+        document.put("tomcatMaxThreads", tomcatMaxThreads);
+        document.put("mongoLatencyMillis", mongoLatencyMillis);
+        document.put("slowClients", slowClients);
+        document.put("users", users);
+        document.put("durationSeconds", elapsedNanos / 1_000_000_000.0);
+        document.put("seedIntroduces", seedIntroduces);
+        document.put("endpoints", summary);
+        reportFile.getParentFile().mkdirs();
+        objectMapper.enable(SerializationFeature.INDENT_OUTPUT).writeValue(reportFile, document);
+        System.out.println("Orphaned images after run: " + orphanedImages);
+        System.out.println("Report written to " + reportFile.getAbsolutePath());
+    }
+
+    // So với report của lần chạy trước (ví dụ chế độ thread pool), theo từng endpoint
+    private void compare(List<Map<String, Object>> summary, long orphanedImages, File baselineFile) throws IOException {
+        JsonNode baseline = objectMapper.readTree(baselineFile);
+        Map<String, JsonNode> baselineRows = new HashMap<>();
+        baseline.path("endpoints").forEach(row -> baselineRows.put(row.path("endpoint").asText(), row));
+
+        System.out.printf("%nCompared with %s (%s):%n", baselineFile, baseline.path("mode").asText());
+        System.out.printf("orphaned images: %s -> %s%n", baseline.path("orphanedImages").asText("?"), orphanedImages);
+        System.out.printf("%-42s %21s %21s %21s%n", "endpoint", "req/s", "p50 ms", "p99 ms");
+        for (Map<String, Object> row : summary) {
+            JsonNode baselineRow = baselineRows.get(String.valueOf(row.get("endpoint")));
+            if (baselineRow == null) {
+                continue;
+            }
+            System.out.printf("%-42s %21s %21s %21s%n", row.get("endpoint"),
+                    baselineRow.path("throughputPerSecond").asText() + " -> " + row.get("throughputPerSecond"),
+                    baselineRow.path("p50Ms").asText() + " -> " + row.get("p50Ms"),
+                    baselineRow.path("p99Ms").asText() + " -> " + row.get("p99Ms"));
+        }
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+        int execute() throws Exception;
+    }
+
+    private static class MultipartBody {
+        private final String boundary;
+        private final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        MultipartBody(String boundary) {
+            this.boundary = boundary;
+        }
+
+        MultipartBody field(String name, String value) {
+            write("--" + boundary + "\r\nContent-Disposition: form-data; name=\"" + name + "\"\r\n\r\n" + value + "\r\n");
+            return this;
+        }
+
+        MultipartBody file(String name, String filename, String contentType, byte[] bytes) {
+            write("--" + boundary + "\r\nContent-Disposition: form-data; name=\"" + name + "\"; filename=\"" + filename
+                    + "\"\r\nContent-Type: " + contentType + "\r\n\r\n");
+            outputStream.writeBytes(bytes);
+            write("\r\n");
+            return this;
+        }
+
+        byte[] toByteArray() {
+            write("--" + boundary + "--\r\n");
+            return outputStream.toByteArray();
+        }
+
+        private void write(String value) {
+            outputStream.writeBytes(value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.shino.vnpt.loadtest;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Supplier;
+
+/**
+ * Client đọc response rất chậm (như mạng di động yếu): buffer nhận nhỏ, đọc từng ít byte rồi nghỉ.
+ * Ở chế độ thread pool, mỗi client như vậy giữ một thread của Tomcat trong suốt lúc ghi body.
+ */
+public class SlowClient implements Runnable {
+    private static final int CHUNK_SIZE = 1024;
+
+    private final int port;
+    private final Supplier<String> pathSupplier;
+    private final long bytesPerSecond;
+    private final long deadlineNanos;
+    private final LatencyRecorder recorder;
+
+    public SlowClient(int port, Supplier<String> pathSupplier, long bytesPerSecond, long deadlineNanos, LatencyRecorder recorder) {
+        this.port = port;
+        this.pathSupplier = pathSupplier;
+        this.bytesPerSecond = bytesPerSecond;
+        this.deadlineNanos = deadlineNanos;
+        this.recorder = recorder;
+    }
+
+    @Override
+    public void run() {
+        long pauseMillis = Math.max(1, CHUNK_SIZE * 1000 / bytesPerSecond);
+        while (System.nanoTime() < deadlineNanos) {
+            long startedAt = System.nanoTime();
+            boolean success = false;
+            try (Socket socket = new Socket()) {
+                socket.setReceiveBufferSize(CHUNK_SIZE);
+                socket.connect(new InetSocketAddress("127.0.0.1", port));
+                OutputStream outputStream = socket.getOutputStream();
+                outputStream.write(("GET " + pathSupplier.get() + " HTTP/1.1\r\nHost: 127.0.0.1\r\nConnection: close\r\n\r\n")
+                        .getBytes(StandardCharsets.US_ASCII));
+                outputStream.flush();
+
+                InputStream inputStream = socket.getInputStream();
+                byte[] buffer = new byte[CHUNK_SIZE];
+                byte[] statusLine = inputStream.readNBytes(12);
+                success = new String(statusLine, StandardCharsets.US_ASCII).startsWith("HTTP/1.1 2");
+                while (inputStream.read(buffer) != -1 && System.nanoTime() < deadlineNanos) {
+                    Thread.sleep(pauseMillis);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                success = false;
+            }
+            recorder.record("slow client GET /image/raw/{id}", System.nanoTime() - startedAt, success);
+        }
+    }
+}
@@ -2,5 +2,6 @@ package com.shino.vnpt.authentication.login;
 
 public interface AuthService {
     LoginResponse login(LoginRequest loginRequest);
+    LoginResponse refresh(String refreshToken);
     void logout(String refreshToken);
 }
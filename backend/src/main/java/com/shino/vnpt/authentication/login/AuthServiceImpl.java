@@ -1,5 +1,6 @@
 package com.shino.vnpt.authentication.login;
 
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
@@ -7,10 +8,14 @@ import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.client.RestTemplate;
 
+import javax.annotation.PostConstruct;
 import java.util.Map;
 
 @Service
+@RequiredArgsConstructor
 public class AuthServiceImpl implements AuthService {
+    private static final HttpHeaders FORM_HEADERS = formHeaders();
+
     @Value("${keycloak.auth-server-url}")
     private String keycloakAuthServerUrl;
     @Value("${keycloak.realm}")
@@ -18,62 +23,81 @@ public class AuthServiceImpl implements AuthService {
     @Value("${keycloak.resource}")
     private String keycloakResource;
 
-    @Override
-    public LoginResponse login(LoginRequest loginRequest) {
-        RestTemplate restTemplate = new RestTemplate();
+    // RestTemplate dùng chung (pool kết nối), xem KeycloakClientConfig
+    private final RestTemplate keycloakRestTemplate;
 
-        String tokenEndpoint = String.format("%s/realms/%s/protocol/openid-connect/token", keycloakAuthServerUrl,keycloakRealm);
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
+    private String tokenEndpoint;
+    private String logoutEndpoint;
+
+    @PostConstruct
+    void initEndpoints() {
+        tokenEndpoint = String.format("%s/realms/%s/protocol/openid-connect/token", keycloakAuthServerUrl, keycloakRealm);
+        logoutEndpoint = String.format("%s/realms/%s/protocol/openid-connect/logout", keycloakAuthServerUrl, keycloakRealm);
+    }
 
+    @Override
+    public LoginResponse login(LoginRequest loginRequest) {
         MultiValueMap<String, String> form = new LinkedMultiValueMap<>();
         form.add("grant_type", "password");
         form.add("client_id", keycloakResource);
         form.add("username", loginRequest.getUsername());
         form.add("password", loginRequest.getPassword());
 
-        HttpEntity<MultiValueMap<String, String>> request = new HttpEntity<>(form, headers);
-
         try {
-            ResponseEntity<Map> response = restTemplate.postForEntity(tokenEndpoint, request, Map.class);
-
-            if (response.getStatusCode() == HttpStatus.OK) {
-                Map<String, Object> map = response.getBody();
-                LoginResponse loginResponse = new LoginResponse();
-                loginResponse.setAccessToken((String) map.get("access_token"));
-                loginResponse.setRefreshToken((String) map.get("refresh_token"));
-                loginResponse.setExpiresIn(((Number) map.get("expires_in")).longValue());
-                loginResponse.setTokenType((String) map.get("token_type"));
-                return loginResponse;
-            } else {
-                throw new RuntimeException("Invalid credentials: " + response.getStatusCode());
-            }
+            return requestToken(form);
         } catch (Exception e) {
             throw new RuntimeException("Error logging in with keycloak: " + e.getMessage(), e);
         }
     }
 
-
     @Override
-    public void logout(String refreshToken) {
-        String logoutUrl = String.format("%s/realms/%s/protocol/openid-connect/logout",
-                keycloakAuthServerUrl, keycloakRealm);
-
-        RestTemplate restTemplate = new RestTemplate();
+    public LoginResponse refresh(String refreshToken) {
+        MultiValueMap<String, String> form = new LinkedMultiValueMap<>();
+        form.add("grant_type", "refresh_token");
+        form.add("client_id", keycloakResource);
+        form.add("refresh_token", refreshToken);
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
+        try {
+            return requestToken(form);
+        } catch (Exception e) {
+            throw new RuntimeException("Error refreshing token with keycloak: " + e.getMessage(), e);
+        }
+    }
 
+    @Override
+    public void logout(String refreshToken) {
         MultiValueMap<String, String> form = new LinkedMultiValueMap<>();
         form.add("client_id", keycloakResource);
         form.add("refresh_token", refreshToken);
 
-        HttpEntity<MultiValueMap<String, String>> request = new HttpEntity<>(form, headers);
+        HttpEntity<MultiValueMap<String, String>> request = new HttpEntity<>(form, FORM_HEADERS);
 
-        ResponseEntity<String> response = restTemplate.postForEntity(logoutUrl, request, String.class);
+        ResponseEntity<String> response = keycloakRestTemplate.postForEntity(logoutEndpoint, request, String.class);
         if (!response.getStatusCode().is2xxSuccessful()) {
             throw new RuntimeException("Failed to logout: " + response.getBody());
         }
     }
 
+    private LoginResponse requestToken(MultiValueMap<String, String> form) {
+        HttpEntity<MultiValueMap<String, String>> request = new HttpEntity<>(form, FORM_HEADERS);
+        ResponseEntity<Map> response = keycloakRestTemplate.postForEntity(tokenEndpoint, request, Map.class);
+
+        if (response.getStatusCode() == HttpStatus.OK) {
+            Map<String, Object> map = response.getBody();
+            LoginResponse loginResponse = new LoginResponse();
+            loginResponse.setAccessToken((String) map.get("access_token"));
+            loginResponse.setRefreshToken((String) map.get("refresh_token"));
+            loginResponse.setExpiresIn(((Number) map.get("expires_in")).longValue());
+            loginResponse.setTokenType((String) map.get("token_type"));
+            return loginResponse;
+        } else {
+            throw new RuntimeException("Invalid credentials: " + response.getStatusCode());
+        }
+    }
+
+    private static HttpHeaders formHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
+        return HttpHeaders.readOnlyHttpHeaders(headers);
+    }
 }
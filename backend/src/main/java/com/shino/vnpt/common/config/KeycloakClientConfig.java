@@ -0,0 +1,52 @@
+package com.shino.vnpt.common.config;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class KeycloakClientConfig {
+
+    /**
+     * Client dùng chung cho mọi lời gọi tới Keycloak: giữ kết nối keep-alive trong pool giới hạn
+     * thay vì mở TCP/TLS mới cho mỗi lần login.
+     */
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient keycloakHttpClient(
+            @Value("${keycloak.client.max-connections:50}") int maxConnections,
+            @Value("${keycloak.client.connect-timeout-ms:2000}") int connectTimeout,
+            @Value("${keycloak.client.read-timeout-ms:5000}") int readTimeout,
+            @Value("${keycloak.client.pool-timeout-ms:1000}") int poolTimeout) {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(60, TimeUnit.SECONDS);
+        connectionManager.setMaxTotal(maxConnections);
+        // Chỉ gọi một host Keycloak nên cho phép dùng hết pool
+        connectionManager.setDefaultMaxPerRoute(maxConnections);
+        connectionManager.setValidateAfterInactivity(2000);
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(connectTimeout)
+                .setSocketTimeout(readTimeout)
+                .setConnectionRequestTimeout(poolTimeout)
+                .build();
+
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .evictIdleConnections(30, TimeUnit.SECONDS)
+                .evictExpiredConnections()
+                .build();
+    }
+
+    @Bean
+    public RestTemplate keycloakRestTemplate(CloseableHttpClient keycloakHttpClient) {
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(keycloakHttpClient));
+    }
+}
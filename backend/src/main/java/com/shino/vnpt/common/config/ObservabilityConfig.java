@@ -0,0 +1,33 @@
+package com.shino.vnpt.common.config;
+
+import com.shino.vnpt.core.MongoTracingCommandListener;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.OpenTelemetry;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.PropertySource;
+
+/**
+ * Metrics (Micrometer) và trace (OpenTelemetry). Micrometer được OpenTelemetry starter bridge sang OTLP,
+ * nên cả metric lẫn span đều đẩy về collector tại otel.exporter.otlp.endpoint.
+ * Giá trị mặc định nằm trong observability.properties, application.properties ghi đè được.
+ */
+@Configuration
+@PropertySource("classpath:observability.properties")
+public class ObservabilityConfig {
+
+    // Cho phép @Timed trên service (Spring Boot 2.7 không tự đăng ký aspect này)
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    // Thời gian lệnh MongoDB đã có ở metric mongodb.driver.commands (Spring Boot), ở đây bổ sung span
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoTracingCustomizer(OpenTelemetry openTelemetry) {
+        MongoTracingCommandListener listener = new MongoTracingCommandListener(openTelemetry.getTracer("com.shino.vnpt.mongodb"));
+        return builder -> builder.addCommandListener(listener);
+    }
+}
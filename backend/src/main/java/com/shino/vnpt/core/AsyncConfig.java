@@ -0,0 +1,58 @@
+package com.shino.vnpt.core;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.task.TaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+
+    /**
+     * Khai báo lại executor mặc định của Spring Boot: bean imageProcessingExecutor bên dưới làm
+     * TaskExecutionAutoConfiguration bỏ qua applicationTaskExecutor (dùng cho @Async mặc định,
+     * StreamingResponseBody và request bất đồng bộ của MVC).
+     */
+    @Lazy
+    @Bean(name = {"applicationTaskExecutor", "taskExecutor"})
+    public ThreadPoolTaskExecutor applicationTaskExecutor(TaskExecutorBuilder taskExecutorBuilder) {
+        return taskExecutorBuilder.build();
+    }
+
+    /**
+     * Pool giới hạn cho việc decode/nén ảnh. Khi hàng đợi đầy sẽ ném TaskRejectedException
+     * để phía gọi quyết định (không chặn thread của Tomcat).
+     */
+    @Bean
+    public ThreadPoolTaskExecutor imageProcessingExecutor(
+            @Value("${image.processing.pool-size:2}") int poolSize,
+            @Value("${image.processing.queue-capacity:50}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("image-processing-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    /**
+     * Gửi event introduce tới client SSE/GraphQL. Vài thread dùng chung cho mọi kết nối: chỉ chạy khi có event cần gửi.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor introduceEventExecutor(@Value("${introduce.events.pool-size:4}") int poolSize) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setThreadNamePrefix("introduce-events-");
+        return executor;
+    }
+}
@@ -0,0 +1,37 @@
+package com.shino.vnpt.core;
+
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+
+/**
+ * Nhận change event của một collection từ {@link MongoChangeStreamListener} để cập nhật trạng thái trong bộ nhớ
+ * (cache, index) khi instance khác ghi vào MongoDB.
+ */
+public interface ChangeStreamHandler {
+    String collection();
+
+    void onChange(ChangeStreamDocument<Document> event);
+
+    /**
+     * Không còn nối tiếp được luồng event (token hết hạn, collection bị drop...): bỏ toàn bộ trạng thái cục bộ.
+     */
+    void resync();
+
+    // Handler chỉ cần id thì trả DEFAULT để MongoDB không phải lookup lại bản ghi cho mỗi update
+    default FullDocument fullDocument() {
+        return FullDocument.UPDATE_LOOKUP;
+    }
+
+    static String documentId(ChangeStreamDocument<Document> event) {
+        if (event.getDocumentKey() == null) {
+            return null;
+        }
+        BsonValue id = event.getDocumentKey().get("_id");
+        if (id == null) {
+            return null;
+        }
+        return id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.isString() ? id.asString().getValue() : id.toString();
+    }
+}
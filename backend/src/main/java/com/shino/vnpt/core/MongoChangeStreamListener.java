@@ -0,0 +1,260 @@
+package com.shino.vnpt.core;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonTimestamp;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Theo dõi change stream của các collection có {@link ChangeStreamHandler} để mọi instance sau load balancer
+ * cập nhật cache/index khi một instance khác ghi. Resume token được lưu theo node để nối tiếp sau khi khởi động lại.
+ * Change stream cần replica set: với MongoDB standalone listener tự tắt và cache chỉ dựa vào TTL.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "mongo.change-stream.enabled", havingValue = "true", matchIfMissing = true)
+public class MongoChangeStreamListener {
+    private static final String CHECKPOINT_COLLECTION = "change_stream_checkpoints";
+    // ChangeStreamHistoryLost / ChangeStreamFatalError: token đã ra khỏi oplog, không resume được
+    private static final Set<Integer> HISTORY_LOST_CODES = Set.of(280, 286);
+    // Standalone không hỗ trợ $changeStream
+    private static final int NOT_REPLICA_SET_CODE = 40573;
+
+    private final MongoTemplate mongoTemplate;
+    private final List<ChangeStreamHandler> handlers;
+    private final MeterRegistry meterRegistry;
+    private final String nodeId;
+    private final Duration maxAwaitTime;
+    private final Duration checkpointInterval;
+    private final Duration retryDelay;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final List<Thread> workers = new ArrayList<>();
+
+    public MongoChangeStreamListener(MongoTemplate mongoTemplate,
+                                     List<ChangeStreamHandler> handlers,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${mongo.change-stream.node-id:${HOSTNAME:local}}") String nodeId,
+                                     @Value("${mongo.change-stream.max-await-time:PT1S}") Duration maxAwaitTime,
+                                     @Value("${mongo.change-stream.checkpoint-interval:PT5S}") Duration checkpointInterval,
+                                     @Value("${mongo.change-stream.retry-delay:PT5S}") Duration retryDelay) {
+        this.mongoTemplate = mongoTemplate;
+        this.handlers = handlers;
+        this.meterRegistry = meterRegistry;
+        this.nodeId = nodeId;
+        this.maxAwaitTime = maxAwaitTime;
+        this.checkpointInterval = checkpointInterval;
+        this.retryDelay = retryDelay;
+    }
+
+    // Chạy nền: tạo index checkpoint có thể chờ MongoDB tới hết server selection timeout
+    @Async("applicationTaskExecutor")
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            // Checkpoint của node không còn chạy (vd. pod cũ) tự bị xóa
+            mongoTemplate.indexOps(CHECKPOINT_COLLECTION)
+                    .ensureIndex(new Index().on("updatedAt", Sort.Direction.ASC).expire(Duration.ofDays(7)));
+        } catch (Exception e) {
+            log.warn("Could not ensure change stream checkpoint index: {}", e.getMessage());
+        }
+
+        for (ChangeStreamHandler handler : handlers) {
+            Thread worker = new Thread(new Worker(handler), "change-stream-" + handler.collection());
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running.set(false);
+        workers.forEach(Thread::interrupt);
+    }
+
+    private class Worker implements Runnable {
+        private final ChangeStreamHandler handler;
+        private final String checkpointId;
+        private final AtomicBoolean connected = new AtomicBoolean();
+        private final Timer lagTimer;
+        private final Counter resyncCounter;
+
+        private BsonDocument resumeToken;
+        private BsonDocument savedToken;
+        private long savedAt;
+        private boolean opened;
+
+        Worker(ChangeStreamHandler handler) {
+            this.handler = handler;
+            this.checkpointId = nodeId + ":" + handler.collection();
+            this.lagTimer = Timer.builder("mongo.change-stream.lag")
+                    .description("Thời gian từ lúc ghi (cluster time) đến lúc node này xử lý event")
+                    .tag("collection", handler.collection())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            this.resyncCounter = Counter.builder("mongo.change-stream.resyncs")
+                    .tag("collection", handler.collection())
+                    .register(meterRegistry);
+            Gauge.builder("mongo.change-stream.connected", connected, value -> value.get() ? 1 : 0)
+                    .tag("collection", handler.collection())
+                    .register(meterRegistry);
+        }
+
+        @Override
+        public void run() {
+            resumeToken = loadCheckpoint();
+            while (running.get()) {
+                try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = open()) {
+                    connected.set(true);
+                    while (running.get()) {
+                        ChangeStreamDocument<Document> event = cursor.tryNext();
+                        if (event != null) {
+                            handle(event);
+                            resumeToken = event.getResumeToken();
+                        } else if (cursor.getResumeToken() != null) {
+                            // Không có event: token vẫn tiến theo cluster time, lưu để lần resume sau ngắn hơn
+                            resumeToken = cursor.getResumeToken();
+                        }
+                        saveCheckpoint(false);
+                    }
+                } catch (MongoCommandException e) {
+                    if (e.getErrorCode() == NOT_REPLICA_SET_CODE) {
+                        log.warn("Change streams unavailable for {} (MongoDB is not a replica set), listener stopped", handler.collection());
+                        connected.set(false);
+                        return;
+                    }
+                    if (HISTORY_LOST_CODES.contains(e.getErrorCode())) {
+                        log.warn("Resume token for {} is no longer in the oplog, resyncing", handler.collection());
+                        resumeToken = null;
+                        resync();
+                    } else {
+                        onError(e);
+                    }
+                } catch (MongoException e) {
+                    onError(e);
+                } catch (IllegalStateException e) {
+                    // Cursor bị đóng khi ứng dụng tắt
+                    if (running.get()) {
+                        onError(e);
+                    }
+                } finally {
+                    connected.set(false);
+                }
+            }
+            saveCheckpoint(true);
+        }
+
+        private MongoChangeStreamCursor<ChangeStreamDocument<Document>> open() {
+            ChangeStreamIterable<Document> stream = mongoTemplate.getCollection(handler.collection())
+                    .watch()
+                    .fullDocument(handler.fullDocument())
+                    .maxAwaitTime(maxAwaitTime.toMillis(), TimeUnit.MILLISECONDS);
+            if (resumeToken != null) {
+                stream = stream.resumeAfter(resumeToken);
+            } else if (opened) {
+                // Mất kết nối trước khi có token: có thể đã bỏ lỡ thay đổi trong lúc không theo dõi
+                resync();
+            }
+            opened = true;
+            return stream.cursor();
+        }
+
+        private void handle(ChangeStreamDocument<Document> event) {
+            BsonTimestamp clusterTime = event.getClusterTime();
+            if (clusterTime != null) {
+                long lagMillis = System.currentTimeMillis() - clusterTime.getTime() * 1000L;
+                lagTimer.record(Math.max(lagMillis, 0), TimeUnit.MILLISECONDS);
+            }
+            meterRegistry.counter("mongo.change-stream.events",
+                    "collection", handler.collection(), "operation", String.valueOf(event.getOperationTypeString())).increment();
+            try {
+                handler.onChange(event);
+            } catch (Exception e) {
+                log.warn("Change stream handler for {} failed, resyncing: {}", handler.collection(), e.getMessage());
+                resync();
+            }
+        }
+
+        private void resync() {
+            resyncCounter.increment();
+            try {
+                handler.resync();
+            } catch (Exception e) {
+                log.warn("Could not resync {}: {}", handler.collection(), e.getMessage());
+            }
+        }
+
+        // Lỗi mạng/failover: giữ token để resume, không mất event
+        private void onError(Exception e) {
+            if (!running.get()) {
+                return;
+            }
+            log.warn("Change stream for {} interrupted, retrying in {}: {}", handler.collection(), retryDelay, e.getMessage());
+            try {
+                Thread.sleep(retryDelay.toMillis());
+            } catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+                running.set(false);
+            }
+        }
+
+        private BsonDocument loadCheckpoint() {
+            try {
+                Document checkpoint = mongoTemplate.findById(checkpointId, Document.class, CHECKPOINT_COLLECTION);
+                return checkpoint != null && checkpoint.getString("token") != null ? BsonDocument.parse(checkpoint.getString("token")) : null;
+            } catch (Exception e) {
+                log.warn("Could not load change stream checkpoint for {}: {}", handler.collection(), e.getMessage());
+                return null;
+            }
+        }
+
+        private void saveCheckpoint(boolean force) {
+            long now = System.nanoTime();
+            if (resumeToken == null || resumeToken.equals(savedToken) || (!force && now - savedAt < checkpointInterval.toNanos())) {
+                return;
+            }
+            try {
+                mongoTemplate.upsert(new Query(Criteria.where("_id").is(checkpointId)),
+                        Update.update("token", resumeToken.toJson()).set("updatedAt", new Date()), CHECKPOINT_COLLECTION);
+                savedToken = resumeToken;
+                savedAt = now;
+            } catch (Exception e) {
+                log.warn("Could not save change stream checkpoint for {}: {}", handler.collection(), e.getMessage());
+            }
+        }
+    }
+}
@@ -1,10 +1,47 @@
 package com.shino.vnpt.core;
 
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.mongodb.config.EnableMongoAuditing;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.scheduling.annotation.Async;
 
+@Slf4j
 @Configuration
 @EnableMongoAuditing
+@RequiredArgsConstructor
 public class MongoConfig {
+    private final MongoTemplate mongoTemplate;
+    private final MongoMappingContext mongoMappingContext;
 
+    /**
+     * Tạo các index khai báo bằng @Indexed/@CompoundIndex trên document
+     * (auto-index-creation mặc định tắt từ Spring Data MongoDB 3.0). Chạy nền: MongoDB chưa sẵn sàng thì mỗi lệnh
+     * chờ hết server selection timeout, không được giữ main thread lúc khởi động.
+     */
+    @Async("applicationTaskExecutor")
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        IndexResolver indexResolver = new MongoPersistentEntityIndexResolver(mongoMappingContext);
+        for (MongoPersistentEntity<?> entity : mongoMappingContext.getPersistentEntities()) {
+            if (entity.isAnnotationPresent(Document.class)) {
+                try {
+                    IndexOperations indexOperations = mongoTemplate.indexOps(entity.getType());
+                    indexResolver.resolveIndexFor(entity.getTypeInformation()).forEach(indexOperations::ensureIndex);
+                } catch (Exception e) {
+                    // Không chặn việc khởi động nếu MongoDB chưa sẵn sàng, lần khởi động sau sẽ tạo lại
+                    log.warn("Could not ensure indexes for {}: {}", entity.getCollection(), e.getMessage());
+                }
+            }
+        }
+    }
 }
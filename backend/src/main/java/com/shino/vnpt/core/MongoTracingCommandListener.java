@@ -0,0 +1,63 @@
+package com.shino.vnpt.core;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import org.bson.BsonValue;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Mỗi lệnh MongoDB thành một span con của span đang chạy (driver sync gọi trên thread của request).
+ * Chỉ ghi tên lệnh và collection, không ghi nội dung lệnh để tránh lộ dữ liệu.
+ */
+public class MongoTracingCommandListener implements CommandListener {
+    private final Tracer tracer;
+    private final Map<Integer, Span> spans = new ConcurrentHashMap<>();
+
+    public MongoTracingCommandListener(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        Span span = tracer.spanBuilder("mongodb." + event.getCommandName())
+                .setSpanKind(SpanKind.CLIENT)
+                .setAttribute("db.system", "mongodb")
+                .setAttribute("db.name", event.getDatabaseName())
+                .setAttribute("db.operation", event.getCommandName())
+                .setAttribute("db.mongodb.collection", collectionName(event))
+                .startSpan();
+        spans.put(event.getRequestId(), span);
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        Span span = spans.remove(event.getRequestId());
+        if (span != null) {
+            span.end();
+        }
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        Span span = spans.remove(event.getRequestId());
+        if (span != null) {
+            span.recordException(event.getThrowable());
+            span.setStatus(StatusCode.ERROR);
+            span.end();
+        }
+    }
+
+    // Với find/insert/update... tên collection là giá trị của chính khóa lệnh
+    private static String collectionName(CommandStartedEvent event) {
+        BsonValue value = event.getCommand().get(event.getCommandName());
+        return value != null && value.isString() ? value.asString().getValue() : "";
+    }
+}
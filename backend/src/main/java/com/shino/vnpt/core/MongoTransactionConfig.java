@@ -0,0 +1,27 @@
+package com.shino.vnpt.core;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Transaction nhiều document của MongoDB (cần replica set). Tắt mặc định: tạo introduce kèm ảnh
+ * khi đó dùng bù trừ (xóa ảnh nếu lưu introduce lỗi) thay vì transaction.
+ */
+@Configuration
+@ConditionalOnProperty(name = "mongo.transactions.enabled", havingValue = "true")
+public class MongoTransactionConfig {
+
+    @Bean
+    public MongoTransactionManager mongoTransactionManager(MongoDatabaseFactory mongoDatabaseFactory) {
+        return new MongoTransactionManager(mongoDatabaseFactory);
+    }
+
+    @Bean
+    public TransactionTemplate mongoTransactionTemplate(MongoTransactionManager mongoTransactionManager) {
+        return new TransactionTemplate(mongoTransactionManager);
+    }
+}
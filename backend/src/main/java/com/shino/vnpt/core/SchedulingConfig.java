@@ -0,0 +1,23 @@
+package com.shino.vnpt.core;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.task.TaskSchedulerBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+    /**
+     * Spring Boot mặc định chỉ có 1 thread cho mọi @Scheduled: một job chạy lâu (OrphanImageCollector nghỉ giữa
+     * các batch, ImageMigrationJob) sẽ làm trễ làm mới JWKS, heartbeat SSE và làm mới search index.
+     */
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler(TaskSchedulerBuilder taskSchedulerBuilder,
+                                                 @Value("${spring.task.scheduling.pool.size:4}") int poolSize) {
+        return taskSchedulerBuilder.poolSize(poolSize).build();
+    }
+}
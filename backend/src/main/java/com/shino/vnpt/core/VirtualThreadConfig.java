@@ -0,0 +1,49 @@
+package com.shino.vnpt.core;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Chế độ virtual thread (bật bằng {@code execution.virtual-threads.enabled=true}, cần chạy trên JDK 21+):
+ * mỗi request của Tomcat (REST, GraphQL) và mỗi tác vụ async của MVC (StreamingResponseBody) chạy trên
+ * một virtual thread, nên request chờ MongoDB hoặc client chậm không còn chiếm chỗ trong pool cố định.
+ * Pool xử lý ảnh vẫn giới hạn vì tốn CPU.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "execution.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService virtualThreadExecutor() {
+        ExecutorService executor = VirtualThreads.newPerTaskExecutor()
+                .orElseThrow(() -> new IllegalStateException(
+                        "execution.virtual-threads.enabled requires Java 21 or newer, running on " + Runtime.version()));
+        log.info("Serving requests on virtual threads");
+        return executor;
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer(ExecutorService virtualThreadExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor);
+    }
+
+    @Bean
+    public WebMvcConfigurer virtualThreadAsyncSupport(ExecutorService virtualThreadExecutor) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+                configurer.setTaskExecutor(new ConcurrentTaskExecutor(virtualThreadExecutor));
+            }
+        };
+    }
+}
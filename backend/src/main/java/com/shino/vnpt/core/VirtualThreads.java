@@ -0,0 +1,32 @@
+package com.shino.vnpt.core;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Virtual thread (Java 21+). Mã nguồn vẫn biên dịch với Java 17 nên gọi qua reflection;
+ * chỉ có tác dụng khi chạy trên JDK 21 trở lên.
+ */
+public final class VirtualThreads {
+    private VirtualThreads() {
+    }
+
+    public static boolean isSupported() {
+        return Runtime.version().feature() >= 21;
+    }
+
+    /**
+     * @return executor tạo một virtual thread cho mỗi task, rỗng nếu JDK đang chạy không hỗ trợ
+     */
+    public static Optional<ExecutorService> newPerTaskExecutor() {
+        if (!isSupported()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of((ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null));
+        } catch (ReflectiveOperationException e) {
+            return Optional.empty();
+        }
+    }
+}
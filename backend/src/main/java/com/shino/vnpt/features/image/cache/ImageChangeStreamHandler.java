@@ -0,0 +1,49 @@
+package com.shino.vnpt.features.image.cache;
+
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.shino.vnpt.core.ChangeStreamHandler;
+import com.shino.vnpt.features.image.document.ImageDocument;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Trạng thái xử lý, kích thước, hash của ảnh đổi trên node khác: bỏ metadata đã cache của ảnh đó.
+ */
+@Component
+@RequiredArgsConstructor
+public class ImageChangeStreamHandler implements ChangeStreamHandler {
+    private final MongoTemplate mongoTemplate;
+    private final ImageMetadataCache imageMetadataCache;
+
+    @Override
+    public String collection() {
+        return mongoTemplate.getCollectionName(ImageDocument.class);
+    }
+
+    // Chỉ cần id: không lookup (và kéo base64 của ảnh cũ) qua change stream
+    @Override
+    public FullDocument fullDocument() {
+        return FullDocument.DEFAULT;
+    }
+
+    @Override
+    public void onChange(ChangeStreamDocument<Document> event) {
+        String id = ChangeStreamHandler.documentId(event);
+        switch (event.getOperationType()) {
+            case INSERT, UPDATE, REPLACE, DELETE -> {
+                if (id != null) {
+                    imageMetadataCache.invalidate(id);
+                }
+            }
+            default -> resync();
+        }
+    }
+
+    @Override
+    public void resync() {
+        imageMetadataCache.invalidateAll();
+    }
+}
@@ -0,0 +1,53 @@
+package com.shino.vnpt.features.image.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.shino.vnpt.features.image.dto.ImageMetadataResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Metadata ảnh theo id cho danh sách introduce và GraphQL. Ghi trên node này và change stream (node khác)
+ * gọi {@link #invalidate(String)}; TTL giới hạn độ cũ khi change stream không chạy (MongoDB standalone).
+ */
+@Component
+public class ImageMetadataCache {
+    private final Cache<String, ImageMetadataResponse> cache;
+
+    public ImageMetadataCache(MeterRegistry meterRegistry,
+                              @Value("${image.metadata-cache.ttl:PT1M}") Duration ttl,
+                              @Value("${image.metadata-cache.max-entries:10000}") long maxEntries) {
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxEntries)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "image.metadata");
+    }
+
+    // Chỉ các id chưa có trong cache được nạp, theo một lô
+    public Map<String, ImageMetadataResponse> getAll(Collection<String> ids, Function<Set<String>, Map<String, ImageMetadataResponse>> loader) {
+        return cache.getAll(ids, missing -> {
+            Set<String> keys = new HashSet<>();
+            missing.forEach(keys::add);
+            return loader.apply(keys);
+        });
+    }
+
+    public void invalidate(String id) {
+        cache.invalidate(id);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+}
@@ -0,0 +1,24 @@
+package com.shino.vnpt.features.image.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Giới hạn cho ảnh upload, ví dụ {@code image.upload.max-size=20MB}, {@code image.upload.max-pixels=40000000}.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "image.upload")
+public class ImageUploadProperties {
+    private DataSize maxSize = DataSize.ofMegabytes(20);
+    private int maxWidth = 8000;
+    private int maxHeight = 8000;
+    // Ảnh decode chiếm khoảng width * height * 4 byte heap
+    private long maxPixels = 40_000_000L;
+
+    public boolean isWithinDimensions(int width, int height) {
+        return width <= maxWidth && height <= maxHeight && (long) width * height <= maxPixels;
+    }
+}
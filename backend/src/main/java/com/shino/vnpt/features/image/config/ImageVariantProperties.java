@@ -0,0 +1,29 @@
+package com.shino.vnpt.features.image.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Các kích thước ảnh được sinh sẵn, ví dụ {@code image.variants.sm=160}.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "image")
+public class ImageVariantProperties {
+    private Map<String, Integer> variants = new LinkedHashMap<>(Map.of("sm", 160, "md", 480, "lg", 1080));
+
+    /**
+     * Chọn variant nhỏ nhất có chiều rộng >= width, null nếu width lớn hơn mọi variant (dùng ảnh gốc).
+     */
+    public String resolveVariant(int width) {
+        return variants.entrySet().stream()
+                .filter(entry -> entry.getValue() >= width)
+                .min(Map.Entry.comparingByValue())
+                .map(Map.Entry::getKey)
+                .orElse(null);
+    }
+}
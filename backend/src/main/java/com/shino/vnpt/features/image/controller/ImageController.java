@@ -1,9 +1,14 @@
 package com.shino.vnpt.features.image.controller;
 
+import com.shino.vnpt.features.image.dto.ImageContent;
+import com.shino.vnpt.features.image.enums.ImageStatus;
 import com.shino.vnpt.features.image.services.ImageService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 @RestController
@@ -11,6 +16,11 @@ import org.springframework.web.multipart.MultipartFile;
 @CrossOrigin(origins = "*", allowedHeaders = "*")
 @RequestMapping("/api/v1/image")
 public class ImageController {
+    // Ảnh không bao giờ bị ghi đè theo id (cập nhật sẽ tạo ảnh mới) nên có thể cache vĩnh viễn
+    private static final String IMMUTABLE_CACHE_CONTROL = "public, max-age=31536000, immutable";
+    // Ảnh đang xử lý sẽ được thay bằng bản nén, chưa được cache lâu
+    private static final String PROCESSING_CACHE_CONTROL = "no-cache";
+
     private final ImageService imageService;
 
     @PostMapping("/upload")
@@ -31,10 +41,41 @@ public class ImageController {
         }
     }
 
+    /**
+     * Trả về dữ liệu nhị phân của ảnh (không bọc Base64/JSON).
+     * Hỗ trợ ETag (SHA-256), If-None-Match -> 304 và header Range (Spring xử lý cho body kiểu Resource).
+     * Dùng {@code ?variant=sm} hoặc {@code ?w=300} để lấy bản thu nhỏ phù hợp.
+     */
+    @GetMapping("/raw/{id}")
+    public ResponseEntity<?> getImageContent(@PathVariable String id,
+                                             @RequestParam(value = "variant", required = false) String variant,
+                                             @RequestParam(value = "w", required = false) Integer width,
+                                             WebRequest webRequest) {
+        try {
+            ImageContent imageContent = imageService.getImageContent(id, variant, width);
+            if (webRequest.checkNotModified(imageContent.getHash())) {
+                // Spring đã ghi 304 + ETag, không cần body
+                return null;
+            }
+
+            return ResponseEntity.ok()
+                    .eTag(imageContent.getHash())
+                    .header(HttpHeaders.CACHE_CONTROL, imageContent.getStatus() == ImageStatus.PROCESSING ? PROCESSING_CACHE_CONTROL : IMMUTABLE_CACHE_CONTROL)
+                    .contentType(imageContent.getContentType() != null ? MediaType.parseMediaType(imageContent.getContentType()) : MediaType.APPLICATION_OCTET_STREAM)
+                    .body(imageContent.getResource());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Danh sách metadata (không có dữ liệu ảnh), phân trang theo keyset: truyền nextCursor vào ?after=.
+     */
     @GetMapping("/all")
-    public ResponseEntity<?> getAllImage() {
+    public ResponseEntity<?> getAllImage(@RequestParam(value = "after", required = false) String after,
+                                         @RequestParam(value = "limit", defaultValue = "50") int limit) {
         try {
-            return ResponseEntity.ok(imageService.getAllImage());
+            return ResponseEntity.ok(imageService.getAllImage(after, limit));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -1,12 +1,18 @@
 package com.shino.vnpt.features.image.document;
 
+import com.shino.vnpt.features.image.enums.ImageStatus;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.bson.types.ObjectId;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -15,5 +21,23 @@ public class ImageDocument {
     @Id
     private String id;
     private String contentType;
+    // Chỉ còn ở ảnh cũ chưa được ImageMigrationJob chuyển sang ImageStorage
     private String base64;
+    // Khóa của dữ liệu nhị phân trong ImageStorage (GridFS / local)
+    private String storageKey;
+    // Kích thước (byte) và SHA-256 của dữ liệu gốc, dùng làm ETag
+    private Long size;
+    private String hash;
+    // SHA-256 của file lúc upload (không đổi sau khi nén), dùng để khử trùng lặp
+    @Indexed(unique = true, sparse = true)
+    private String originalHash;
+    // Số lần upload/introduce đang dùng ảnh này
+    private Integer referenceCount;
+    // Thời điểm OrphanImageCollector thấy ảnh không còn introduce nào dùng; null nếu đang được dùng
+    private LocalDateTime orphanedAt;
+    private Integer width;
+    private Integer height;
+    private ImageStatus status;
+    // Các bản thu nhỏ theo tên trong ImageVariantProperties (sm, md, lg...)
+    private Map<String, ImageVariant> variants = new HashMap<>();
 }
@@ -0,0 +1,17 @@
+package com.shino.vnpt.features.image.document;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImageVariant {
+    private String storageKey;
+    private String contentType;
+    private Long size;
+    private String hash;
+    private Integer width;
+    private Integer height;
+}
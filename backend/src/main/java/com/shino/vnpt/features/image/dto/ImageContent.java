@@ -0,0 +1,19 @@
+package com.shino.vnpt.features.image.dto;
+
+import com.shino.vnpt.features.image.enums.ImageStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.core.io.Resource;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImageContent {
+    private String id;
+    private String contentType;
+    private String hash;
+    private long size;
+    private Resource resource;
+    private ImageStatus status;
+}
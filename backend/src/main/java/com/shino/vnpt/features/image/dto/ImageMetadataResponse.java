@@ -0,0 +1,20 @@
+package com.shino.vnpt.features.image.dto;
+
+import com.shino.vnpt.features.image.enums.ImageStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImageMetadataResponse {
+    private String id;
+    private String contentType;
+    private Long size;
+    private Integer width;
+    private Integer height;
+    private String hash;
+    private ImageStatus status;
+    private String url;
+}
@@ -0,0 +1,16 @@
+package com.shino.vnpt.features.image.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImagePageResponse {
+    private List<ImageMetadataResponse> items;
+    // Truyền lại qua ?after= để lấy trang tiếp theo, null nếu đã hết
+    private String nextCursor;
+}
@@ -0,0 +1,15 @@
+package com.shino.vnpt.features.image.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProcessedImage {
+    private byte[] bytes;
+    private String contentType;
+    private int width;
+    private int height;
+}
@@ -0,0 +1,7 @@
+package com.shino.vnpt.features.image.enums;
+
+public enum ImageStatus {
+    PROCESSING,
+    READY,
+    FAILED
+}
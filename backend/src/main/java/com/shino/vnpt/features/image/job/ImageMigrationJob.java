@@ -0,0 +1,69 @@
+package com.shino.vnpt.features.image.job;
+
+import com.shino.vnpt.features.image.document.ImageDocument;
+import com.shino.vnpt.features.image.storage.ImageStorage;
+import com.shino.vnpt.features.image.utils.HashUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Chuyển dần các ảnh cũ lưu Base64 trong collection images sang {@link ImageStorage}.
+ * Mỗi lần chạy xử lý một batch nhỏ để không chiếm tài nguyên của request.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "image.storage.migration.enabled", havingValue = "true", matchIfMissing = true)
+public class ImageMigrationJob {
+    private final MongoTemplate mongoTemplate;
+    private final ImageStorage imageStorage;
+
+    @Value("${image.storage.migration.batch-size:20}")
+    private int batchSize;
+
+    @Scheduled(initialDelayString = "${image.storage.migration.initial-delay-ms:30000}", fixedDelayString = "${image.storage.migration.delay-ms:60000}")
+    public void migrateBatch() {
+        Query pending = new Query(Criteria.where("base64").exists(true).and("storageKey").exists(false)).limit(batchSize);
+        List<ImageDocument> imageDocuments = mongoTemplate.find(pending, ImageDocument.class);
+
+        for (ImageDocument imageDocument : imageDocuments) {
+            try {
+                migrate(imageDocument);
+            } catch (Exception e) {
+                log.warn("Failed to migrate image {}: {}", imageDocument.getId(), e.getMessage());
+            }
+        }
+        if (!imageDocuments.isEmpty()) {
+            log.info("Migrated {} Base64 images to storage", imageDocuments.size());
+        }
+    }
+
+    private void migrate(ImageDocument imageDocument) throws Exception {
+        byte[] bytes = Base64.getDecoder().decode(imageDocument.getBase64());
+        String storageKey = imageStorage.store(new ByteArrayInputStream(bytes), imageDocument.getContentType());
+
+        Query query = new Query(Criteria.where("_id").is(imageDocument.getId()).and("storageKey").exists(false));
+        Update update = new Update()
+                .set("storageKey", storageKey)
+                .set("size", (long) bytes.length)
+                .set("hash", HashUtils.sha256Hex(bytes))
+                .unset("base64");
+
+        // Một instance khác đã chuyển ảnh này trước -> bỏ bản vừa ghi
+        if (mongoTemplate.updateFirst(query, update, ImageDocument.class).getModifiedCount() == 0) {
+            imageStorage.delete(storageKey);
+        }
+    }
+}
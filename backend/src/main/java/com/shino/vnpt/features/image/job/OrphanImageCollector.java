@@ -0,0 +1,207 @@
+package com.shino.vnpt.features.image.job;
+
+import com.shino.vnpt.features.image.document.ImageDocument;
+import com.shino.vnpt.features.image.services.ImageService;
+import com.shino.vnpt.features.introduce.document.IntroduceDocument;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Dọn ảnh không còn IntroduceDocument nào tham chiếu, theo 2 bước:
+ * đánh dấu orphanedAt, rồi sau thời gian ân hạn (client có thể vẫn đang giữ danh sách cũ) mới xóa.
+ * Chạy theo batch, nghỉ giữa các batch để không giành tài nguyên với request.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "image.gc.enabled", havingValue = "true", matchIfMissing = true)
+public class OrphanImageCollector {
+    private final MongoTemplate mongoTemplate;
+    private final ImageService imageService;
+
+    private final boolean dryRun;
+    private final Duration minAge;
+    private final Duration gracePeriod;
+    private final int batchSize;
+    private final int maxBatches;
+    private final long batchPauseMillis;
+
+    private final Counter markedCounter;
+    private final Counter deletedCounter;
+    private final Counter reclaimedBytesCounter;
+    private final Timer runTimer;
+
+    public OrphanImageCollector(MongoTemplate mongoTemplate,
+                                ImageService imageService,
+                                MeterRegistry meterRegistry,
+                                @Value("${image.gc.dry-run:false}") boolean dryRun,
+                                @Value("${image.gc.min-age:PT24H}") Duration minAge,
+                                @Value("${image.gc.grace-period:P7D}") Duration gracePeriod,
+                                @Value("${image.gc.batch-size:100}") int batchSize,
+                                @Value("${image.gc.max-batches-per-run:50}") int maxBatches,
+                                @Value("${image.gc.batch-pause-ms:200}") long batchPauseMillis) {
+        this.mongoTemplate = mongoTemplate;
+        this.imageService = imageService;
+        this.dryRun = dryRun;
+        this.minAge = minAge;
+        this.gracePeriod = gracePeriod;
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+        this.batchPauseMillis = batchPauseMillis;
+        this.markedCounter = Counter.builder("image.gc.marked").tag("dryRun", String.valueOf(dryRun)).register(meterRegistry);
+        this.deletedCounter = Counter.builder("image.gc.deleted").tag("dryRun", String.valueOf(dryRun)).register(meterRegistry);
+        this.reclaimedBytesCounter = Counter.builder("image.gc.reclaimed").baseUnit("bytes").tag("dryRun", String.valueOf(dryRun)).register(meterRegistry);
+        this.runTimer = Timer.builder("image.gc.run").register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${image.gc.initial-delay-ms:600000}", fixedDelayString = "${image.gc.delay-ms:3600000}")
+    public void collect() {
+        runTimer.record(() -> {
+            try {
+                int marked = markOrphans();
+                int deleted = deleteExpiredOrphans();
+                if (marked > 0 || deleted > 0) {
+                    log.info("Orphan image GC{}: marked {}, deleted {}", dryRun ? " (dry-run)" : "", marked, deleted);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.warn("Orphan image GC failed: {}", e.getMessage());
+            }
+        });
+    }
+
+    // Bước 1: ảnh đủ cũ (theo thời điểm trong ObjectId) mà không introduce nào dùng -> đánh dấu orphanedAt.
+    // minAge chừa thời gian cho luồng upload ảnh trước rồi mới tạo introduce
+    private int markOrphans() throws InterruptedException {
+        ObjectId createdBefore = new ObjectId(Date.from(Instant.now().minus(minAge)));
+        String after = null;
+        int marked = 0;
+
+        for (int batch = 0; batch < maxBatches; batch++) {
+            Criteria criteria = Criteria.where("orphanedAt").exists(false);
+            criteria = after == null
+                    ? criteria.and("_id").lt(createdBefore)
+                    : criteria.and("_id").lt(createdBefore).gt(new ObjectId(after));
+            List<String> ids = findIds(criteria);
+            if (ids.isEmpty()) {
+                break;
+            }
+
+            List<String> orphans = unreferenced(ids);
+            if (!orphans.isEmpty()) {
+                if (!dryRun) {
+                    mongoTemplate.updateMulti(new Query(Criteria.where("_id").in(orphans).and("orphanedAt").exists(false)),
+                            Update.update("orphanedAt", LocalDateTime.now()), ImageDocument.class);
+                }
+                marked += orphans.size();
+                markedCounter.increment(orphans.size());
+            }
+
+            after = ids.get(ids.size() - 1);
+            Thread.sleep(batchPauseMillis);
+        }
+        return marked;
+    }
+
+    // Bước 2: đã đánh dấu quá thời gian ân hạn và vẫn không ai dùng -> xóa hẳn
+    private int deleteExpiredOrphans() throws InterruptedException {
+        LocalDateTime orphanedBefore = LocalDateTime.now().minus(gracePeriod);
+        String after = null;
+        int deleted = 0;
+
+        for (int batch = 0; batch < maxBatches; batch++) {
+            Criteria criteria = expiredCriteria(orphanedBefore);
+            if (after != null) {
+                criteria = new Criteria().andOperator(criteria, Criteria.where("_id").gt(new ObjectId(after)));
+            }
+            List<String> ids = findIds(criteria);
+            if (ids.isEmpty()) {
+                break;
+            }
+
+            // Kiểm tra lại: ảnh có thể vừa được dùng lại sau khi bị đánh dấu
+            Set<String> stillOrphaned = new HashSet<>(unreferenced(ids));
+            if (!dryRun && !stillOrphaned.isEmpty()) {
+                reconcileReferenceCount(stillOrphaned, orphanedBefore);
+            }
+            for (String id : ids) {
+                if (!stillOrphaned.contains(id)) {
+                    if (!dryRun) {
+                        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(id)), new Update().unset("orphanedAt"), ImageDocument.class);
+                    }
+                    continue;
+                }
+                if (!dryRun) {
+                    long reclaimed = imageService.purgeOrphan(id, orphanedBefore);
+                    if (reclaimed < 0) {
+                        continue;
+                    }
+                    reclaimedBytesCounter.increment(reclaimed);
+                }
+                deleted++;
+                deletedCounter.increment();
+            }
+
+            after = ids.get(ids.size() - 1);
+            Thread.sleep(batchPauseMillis);
+        }
+        return deleted;
+    }
+
+    // Dry-run không ghi orphanedAt, nên coi ảnh chưa đánh dấu nhưng đã quá minAge + gracePeriod là sẽ bị xóa
+    private Criteria expiredCriteria(LocalDateTime orphanedBefore) {
+        Criteria marked = Criteria.where("orphanedAt").lt(orphanedBefore);
+        if (!dryRun) {
+            return marked;
+        }
+        ObjectId createdBefore = new ObjectId(Date.from(Instant.now().minus(minAge).minus(gracePeriod)));
+        return new Criteria().orOperator(marked,
+                Criteria.where("orphanedAt").exists(false).and("_id").lt(createdBefore));
+    }
+
+    // referenceCount có thể lệch lên (lỗi giữa chừng khi release) trong khi không introduce nào dùng ảnh:
+    // đưa về 1 để purgeOrphan xóa được. Chỉ khớp ảnh vẫn còn orphanedAt cũ, addReference mới sẽ bỏ orphanedAt
+    private void reconcileReferenceCount(Set<String> orphans, LocalDateTime orphanedBefore) {
+        Query query = new Query(Criteria.where("_id").in(orphans)
+                .and("orphanedAt").lt(orphanedBefore)
+                .and("referenceCount").gt(1));
+        long reconciled = mongoTemplate.updateMulti(query, Update.update("referenceCount", 1), ImageDocument.class).getModifiedCount();
+        if (reconciled > 0) {
+            log.warn("Orphan image GC: reset drifted referenceCount of {} unreferenced image(s)", reconciled);
+        }
+    }
+
+    private List<String> findIds(Criteria criteria) {
+        Query query = new Query(criteria).with(Sort.by(Sort.Direction.ASC, "_id")).limit(batchSize);
+        query.fields().include("_id");
+        return mongoTemplate.find(query, ImageDocument.class).stream()
+                .map(ImageDocument::getId)
+                .toList();
+    }
+
+    private List<String> unreferenced(List<String> imageIds) {
+        Set<String> referenced = new HashSet<>(mongoTemplate.findDistinct(
+                new Query(Criteria.where("imageId").in(imageIds)), "imageId", IntroduceDocument.class, String.class));
+        return imageIds.stream().filter(id -> !referenced.contains(id)).toList();
+    }
+}
@@ -4,6 +4,9 @@ import com.shino.vnpt.features.image.document.ImageDocument;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
+
 @Repository
 public interface ImageRepository extends MongoRepository<ImageDocument, String> {
+    Optional<ImageDocument> findByOriginalHash(String originalHash);
 }
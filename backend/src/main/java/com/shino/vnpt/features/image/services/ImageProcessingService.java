@@ -0,0 +1,5 @@
+package com.shino.vnpt.features.image.services;
+
+public interface ImageProcessingService {
+    void processImage(String imageId);
+}
@@ -0,0 +1,93 @@
+package com.shino.vnpt.features.image.services;
+
+import com.shino.vnpt.features.image.cache.ImageMetadataCache;
+import com.shino.vnpt.features.image.document.ImageDocument;
+import com.shino.vnpt.features.image.dto.ProcessedImage;
+import com.shino.vnpt.features.image.enums.ImageStatus;
+import com.shino.vnpt.features.image.repository.ImageRepository;
+import com.shino.vnpt.features.image.storage.ImageStorage;
+import com.shino.vnpt.features.image.utils.HashUtils;
+import com.shino.vnpt.features.image.utils.ImageProcessor;
+import io.micrometer.core.annotation.Timed;
+import io.opentelemetry.instrumentation.annotations.WithSpan;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+@Slf4j
+@Service
+@Timed(value = "image.processing", histogram = true)
+@RequiredArgsConstructor
+public class ImageProcessingServiceImpl implements ImageProcessingService {
+    private final ImageRepository imageRepository;
+    private final ImageStorage imageStorage;
+    private final ImageProcessor imageProcessor;
+    private final ImageVariantService imageVariantService;
+    private final MongoTemplate mongoTemplate;
+    private final ImageMetadataCache imageMetadataCache;
+
+    /**
+     * Chạy trên imageProcessingExecutor: decode một lần, nén lại, bỏ metadata rồi thay bản gốc
+     * nếu bản mới nhỏ hơn. Ảnh luôn được phục vụ được kể cả khi đang PROCESSING hoặc FAILED.
+     */
+    @Async("imageProcessingExecutor")
+    @Override
+    @WithSpan
+    public void processImage(String imageId) {
+        ImageDocument imageDocument = imageRepository.findById(imageId).orElse(null);
+        if (imageDocument == null || imageDocument.getStatus() != ImageStatus.PROCESSING) {
+            return;
+        }
+
+        String originalKey = imageDocument.getStorageKey();
+        Update update = new Update();
+        try {
+            ProcessedImage processedImage;
+            try (InputStream inputStream = imageStorage.open(originalKey)) {
+                processedImage = imageProcessor.processImage(inputStream, imageDocument.getContentType());
+            }
+
+            update.set("width", processedImage.getWidth()).set("height", processedImage.getHeight());
+
+            byte[] bytes = processedImage.getBytes();
+            boolean replaced = bytes.length < imageDocument.getSize();
+            if (replaced) {
+                update.set("storageKey", imageStorage.store(new ByteArrayInputStream(bytes), processedImage.getContentType()))
+                        .set("contentType", processedImage.getContentType())
+                        .set("size", (long) bytes.length)
+                        .set("hash", HashUtils.sha256Hex(bytes));
+            }
+            // Chỉ $set các trường thay đổi để không ghi đè referenceCount được tăng song song
+            mongoTemplate.updateFirst(byId(imageId), update.set("status", ImageStatus.READY), ImageDocument.class);
+            imageMetadataCache.invalidate(imageId);
+
+            if (replaced) {
+                imageStorage.delete(originalKey);
+            }
+        } catch (Exception e) {
+            log.warn("Image processing failed for {}: {}", imageId, e.getMessage());
+            mongoTemplate.updateFirst(byId(imageId), Update.update("status", ImageStatus.FAILED), ImageDocument.class);
+            imageMetadataCache.invalidate(imageId);
+            return;
+        }
+
+        // Sinh sẵn các bản thu nhỏ; lỗi ở đây không ảnh hưởng ảnh chính (sẽ tạo lại khi được request)
+        try {
+            imageRepository.findById(imageId).ifPresent(imageVariantService::createVariants);
+        } catch (Exception e) {
+            log.warn("Variant generation failed for {}: {}", imageId, e.getMessage());
+        }
+    }
+
+    private static Query byId(String imageId) {
+        return new Query(Criteria.where("_id").is(imageId));
+    }
+}
@@ -1,14 +1,39 @@
 package com.shino.vnpt.features.image.services;
 
 import com.shino.vnpt.features.image.document.ImageDocument;
+import com.shino.vnpt.features.image.dto.ImageContent;
+import com.shino.vnpt.features.image.dto.ImageMetadataResponse;
+import com.shino.vnpt.features.image.dto.ImagePageResponse;
+import org.springframework.core.io.InputStreamSource;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.util.List;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
 
 
 public interface ImageService {
     ImageDocument saveImage(MultipartFile multipartFile);
-    List<ImageDocument> getAllImage();
+    /**
+     * Nguồn phải đọc lại được: lần đầu để băm và kiểm tra trùng, lần sau mới ghi vào storage.
+     */
+    ImageDocument saveImage(InputStreamSource source, String contentType);
+    ImagePageResponse getAllImage(String after, int limit);
     ImageDocument getImageById(String id);
+    /**
+     * Lấy metadata của nhiều ảnh trong một truy vấn ($in, không đọc dữ liệu ảnh).
+     */
+    Map<String, ImageMetadataResponse> getImageMetadata(Collection<String> ids);
+    ImageContent getImageContent(String id, String variant, Integer width);
     String deleteImageById(String id);
+    /**
+     * Tăng tham chiếu cho một introduce mới dùng ảnh có sẵn.
+     * @return ảnh sau khi cập nhật, null nếu không tồn tại
+     */
+    ImageDocument addReference(String id);
+    /**
+     * Xóa ảnh mồ côi chỉ khi nó vẫn được đánh dấu trước orphanedBefore và không còn tham chiếu.
+     * @return số byte được giải phóng, -1 nếu ảnh đã được dùng lại hoặc không còn tồn tại
+     */
+    long purgeOrphan(String id, LocalDateTime orphanedBefore);
 }
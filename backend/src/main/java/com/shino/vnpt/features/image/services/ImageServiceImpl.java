@@ -1,20 +1,85 @@
 package com.shino.vnpt.features.image.services;
 
+import com.shino.vnpt.features.image.cache.ImageMetadataCache;
+import com.shino.vnpt.features.image.config.ImageUploadProperties;
+import com.shino.vnpt.features.image.config.ImageVariantProperties;
 import com.shino.vnpt.features.image.document.ImageDocument;
+import com.shino.vnpt.features.image.document.ImageVariant;
+import com.shino.vnpt.features.image.dto.ImageContent;
+import com.shino.vnpt.features.image.dto.ImageMetadataResponse;
+import com.shino.vnpt.features.image.dto.ImagePageResponse;
+import com.shino.vnpt.features.image.enums.ImageStatus;
 import com.shino.vnpt.features.image.repository.ImageRepository;
+import com.shino.vnpt.features.image.storage.ImageStorage;
+import com.shino.vnpt.features.image.storage.StoredImageResource;
+import com.shino.vnpt.features.image.utils.HashUtils;
+import com.shino.vnpt.features.image.utils.ImageProcessor;
+import com.shino.vnpt.features.image.utils.ImageSniffer;
+import com.shino.vnpt.features.image.utils.SizeLimitInputStream;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.instrumentation.annotations.WithSpan;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Sort;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.awt.Dimension;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
 import java.util.Base64;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+@Slf4j
 @Service
+@Timed(value = "image.service", histogram = true)
 @RequiredArgsConstructor
 public class ImageServiceImpl implements ImageService {
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final String RAW_URL_PREFIX = "/api/v1/image/raw/";
+    private static final int MAX_RELEASE_ATTEMPTS = 3;
+
     private final ImageRepository imageRepository;
+    private final ImageStorage imageStorage;
+    private final ImageProcessingService imageProcessingService;
+    private final ImageVariantService imageVariantService;
+    private final ImageVariantProperties imageVariantProperties;
+    private final MongoTemplate mongoTemplate;
+    private final MeterRegistry meterRegistry;
+    private final ImageProcessor imageProcessor;
+    private final ImageUploadProperties imageUploadProperties;
+    private final ImageMetadataCache imageMetadataCache;
 
     @Override
+    @WithSpan
     public ImageDocument saveImage(MultipartFile multipartFile) {
         try {
 
@@ -23,12 +88,104 @@ public class ImageServiceImpl implements ImageService {
                 throw new RuntimeException("File is empty or not provided.");
             }
 
+            // MultipartFile đã được spool (bộ nhớ hoặc đĩa) nên đọc lại được nhiều lần
+            return saveImage(multipartFile, multipartFile.getContentType());
+        } catch (Exception e) {
+            throw new RuntimeException("Error in saveImage: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    @WithSpan
+    public ImageDocument saveImage(InputStreamSource source, String contentType) {
+        try {
+            // Lần đọc thứ nhất: định dạng, SHA-256 và dung lượng, chưa ghi gì vào storage
+            String detectedContentType;
+            String originalHash;
+            long size;
+            try (InputStream inputStream = source.getInputStream()) {
+                // Định dạng lấy từ magic bytes; contentType của client chỉ để tham khảo
+                BufferedInputStream bufferedInputStream = new BufferedInputStream(inputStream);
+                detectedContentType = ImageSniffer.detectContentType(bufferedInputStream);
+                if (detectedContentType == null) {
+                    throw new RuntimeException("Unsupported image format, only PNG, JPEG, GIF or WebP are accepted.");
+                }
+                if (contentType != null && !contentType.equalsIgnoreCase(detectedContentType)) {
+                    log.debug("Declared content type {} does not match detected {}", contentType, detectedContentType);
+                }
+
+                // Dừng ngay khi vượt giới hạn dung lượng
+                MessageDigest messageDigest = HashUtils.newSha256();
+                SizeLimitInputStream limitedInputStream = new SizeLimitInputStream(
+                        new DigestInputStream(bufferedInputStream, messageDigest), imageUploadProperties.getMaxSize().toBytes());
+                try {
+                    limitedInputStream.transferTo(OutputStream.nullOutputStream());
+                } catch (IOException e) {
+                    if (limitedInputStream.isLimitExceeded()) {
+                        throw new RuntimeException("File exceeds the maximum size of " + imageUploadProperties.getMaxSize() + ".");
+                    }
+                    throw e;
+                }
+                size = limitedInputStream.getByteCount();
+                originalHash = HashUtils.toHex(messageDigest);
+            }
+
+            DistributionSummary.builder("image.upload.size")
+                    .baseUnit("bytes")
+                    .tag("contentType", detectedContentType)
+                    .register(meterRegistry)
+                    .record(size);
+
+            // Đã có ảnh cùng nội dung: dùng lại ảnh cũ, không ghi blob mới
+            ImageDocument existing = reuseByHash(originalHash);
+            if (existing != null) {
+                return existing;
+            }
+
+            Dimension dimension = checkDimensions(source);
+
+            // Đã kiểm tra xong mới ghi vào storage
             ImageDocument imageDocument = new ImageDocument();
-            imageDocument.setContentType(multipartFile.getContentType());
-            byte[] bytes = multipartFile.getBytes();
-            String base64 = Base64.getEncoder().encodeToString(bytes);
-            imageDocument.setBase64(base64);
-            imageRepository.save(imageDocument);
+            imageDocument.setContentType(detectedContentType);
+            imageDocument.setWidth(dimension.width);
+            imageDocument.setHeight(dimension.height);
+            try (InputStream inputStream = source.getInputStream()) {
+                imageDocument.setStorageKey(imageStorage.store(inputStream, detectedContentType));
+            }
+
+            // Từ lúc có blob đến khi insert xong: lỗi thì tự xóa blob, vì chưa có document nào để OrphanImageCollector tìm thấy
+            try {
+                imageDocument.setSize(size);
+                imageDocument.setHash(originalHash);
+                imageDocument.setOriginalHash(originalHash);
+                imageDocument.setReferenceCount(1);
+                imageDocument.setStatus(ImageProcessor.isSupported(detectedContentType) ? ImageStatus.PROCESSING : ImageStatus.READY);
+                try {
+                    imageRepository.insert(imageDocument);
+                } catch (DuplicateKeyException e) {
+                    // Lỗi đã hủy transaction đang chạy: để bên gọi chạy lại cả transaction
+                    if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                        throw e;
+                    }
+                    // Upload trùng chạy song song, bản kia đã insert trước (unique index trên originalHash)
+                    ImageDocument concurrent = reuseByHash(originalHash);
+                    if (concurrent != null) {
+                        deleteBlobQuietly(imageDocument.getStorageKey());
+                        return concurrent;
+                    }
+                    // Bản kia vừa bị xóa: insert lại bản của mình
+                    imageRepository.insert(imageDocument);
+                }
+            } catch (RuntimeException e) {
+                deleteBlobQuietly(imageDocument.getStorageKey());
+                throw e;
+            }
+
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                deferUntilCommit(imageDocument);
+            } else if (imageDocument.getStatus() == ImageStatus.PROCESSING) {
+                submitProcessing(imageDocument);
+            }
             return imageDocument;
         } catch (Exception e) {
             throw new RuntimeException("Error in saveImage: " + e.getMessage(), e);
@@ -36,31 +193,252 @@ public class ImageServiceImpl implements ImageService {
     }
 
     @Override
+    @WithSpan
     public ImageDocument getImageById(String id) {
         try {
-            return imageRepository.findById(id).orElseThrow(() -> new RuntimeException("Image not found with id: " + id));
+            ImageDocument imageDocument = imageRepository.findById(id).orElseThrow(() -> new RuntimeException("Image not found with id: " + id));
+
+            // Giữ nguyên định dạng JSON cũ (có base64) cho client cũ
+            if (imageDocument.getBase64() == null && imageDocument.getStorageKey() != null) {
+                try (InputStream inputStream = imageStorage.open(imageDocument.getStorageKey())) {
+                    imageDocument.setBase64(Base64.getEncoder().encodeToString(StreamUtils.copyToByteArray(inputStream)));
+                }
+            }
+            return imageDocument;
         } catch (Exception e) {
             throw new RuntimeException("Error in getImageById: " + e.getMessage(), e);
         }
     }
 
     @Override
-    public List<ImageDocument> getAllImage() {
+    @WithSpan
+    public Map<String, ImageMetadataResponse> getImageMetadata(Collection<String> ids) {
+        try {
+            if (ids.isEmpty()) {
+                return Map.of();
+            }
+
+            return imageMetadataCache.getAll(ids, missing -> {
+                Query query = new Query(Criteria.where("_id").in(missing));
+                query.fields().exclude("base64").exclude("variants");
+                return mongoTemplate.find(query, ImageDocument.class).stream()
+                        .map(ImageServiceImpl::toMetadata)
+                        .collect(Collectors.toMap(ImageMetadataResponse::getId, Function.identity()));
+            });
+        } catch (Exception e) {
+            throw new RuntimeException("Error in getImageMetadata: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    @WithSpan
+    public ImageContent getImageContent(String id, String variant, Integer width) {
+        try {
+            ImageDocument imageDocument = imageRepository.findById(id).orElseThrow(() -> new RuntimeException("Image not found with id: " + id));
+
+            String variantName = variant != null ? variant : (width != null ? imageVariantProperties.resolveVariant(width) : null);
+            ImageVariant imageVariant = variantName != null ? imageVariantService.getOrCreateVariant(imageDocument, variantName) : null;
+            if (imageVariant != null) {
+                StoredImageResource resource = new StoredImageResource(imageStorage, imageVariant.getStorageKey(), imageVariant.getSize());
+                return new ImageContent(imageDocument.getId(), imageVariant.getContentType(), imageVariant.getHash(), imageVariant.getSize(), resource, imageDocument.getStatus());
+            }
+
+            if (imageDocument.getStorageKey() != null) {
+                StoredImageResource resource = new StoredImageResource(imageStorage, imageDocument.getStorageKey(), imageDocument.getSize());
+                return new ImageContent(imageDocument.getId(), imageDocument.getContentType(), imageDocument.getHash(), imageDocument.getSize(), resource, imageDocument.getStatus());
+            }
+
+            byte[] bytes = Base64.getDecoder().decode(imageDocument.getBase64());
+
+            // Ảnh cũ chưa có hash/size: tính một lần rồi lưu lại. Chỉ $set hai trường này và chỉ khi còn thiếu,
+            // không ghi đè cả document (ImageMigrationJob, addReference, xử lý ảnh có thể vừa cập nhật nó)
+            if (imageDocument.getHash() == null || imageDocument.getSize() == null) {
+                imageDocument.setSize((long) bytes.length);
+                imageDocument.setHash(HashUtils.sha256Hex(bytes));
+                Query query = new Query(Criteria.where("_id").is(id)
+                        .orOperator(Criteria.where("hash").is(null), Criteria.where("size").is(null)));
+                mongoTemplate.updateFirst(query, new Update().set("size", imageDocument.getSize()).set("hash", imageDocument.getHash()), ImageDocument.class);
+                imageMetadataCache.invalidate(imageDocument.getId());
+            }
+
+            return new ImageContent(imageDocument.getId(), imageDocument.getContentType(), imageDocument.getHash(), bytes.length, new ByteArrayResource(bytes), imageDocument.getStatus());
+        } catch (Exception e) {
+            throw new RuntimeException("Error in getImageContent: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    @WithSpan
+    public ImagePageResponse getAllImage(String after, int limit) {
         try  {
-            return imageRepository.findAll();
+            int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+
+            // Keyset theo _id, không trả base64/variants
+            Query query = new Query().with(Sort.by(Sort.Direction.ASC, "_id")).limit(pageSize + 1);
+            if (after != null && !after.isBlank()) {
+                query.addCriteria(Criteria.where("_id").gt(new ObjectId(after)));
+            }
+            query.fields().exclude("base64").exclude("variants");
+
+            List<ImageDocument> imageDocuments = mongoTemplate.find(query, ImageDocument.class);
+            boolean hasNext = imageDocuments.size() > pageSize;
+            List<ImageMetadataResponse> items = imageDocuments.stream()
+                    .limit(pageSize)
+                    .map(ImageServiceImpl::toMetadata)
+                    .toList();
+            String nextCursor = hasNext ? items.get(items.size() - 1).getId() : null;
+            return new ImagePageResponse(items, nextCursor);
         } catch (Exception e) {
             throw new RuntimeException("Error in getAllImage: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Giảm số tham chiếu; chỉ xóa ảnh (và dữ liệu trong storage) khi không còn ai dùng.
+     */
     @Override
+    @WithSpan
     public String deleteImageById(String id) {
         try {
-            ImageDocument imageDocument = imageRepository.findById(id).orElseThrow(() -> new RuntimeException("Image not found with id: " + id));
-            imageRepository.delete(imageDocument);
-            return "Deleted";
+            // Giảm tham chiếu hoặc xóa hẳn, mỗi bước là một lệnh có điều kiện; addReference chen vào giữa thì thử lại
+            for (int attempt = 0; attempt < MAX_RELEASE_ATTEMPTS; attempt++) {
+                Query query = new Query(Criteria.where("_id").is(id).and("referenceCount").gt(1));
+                if (mongoTemplate.updateFirst(query, new Update().inc("referenceCount", -1), ImageDocument.class).getModifiedCount() > 0) {
+                    return "Reference released";
+                }
+
+                ImageDocument imageDocument = mongoTemplate.findAndRemove(new Query(lastReference(Criteria.where("_id").is(id))), ImageDocument.class);
+                if (imageDocument != null) {
+                    deleteStoredData(imageDocument);
+                    return "Deleted";
+                }
+                if (!imageRepository.existsById(id)) {
+                    throw new RuntimeException("Image not found with id: " + id);
+                }
+            }
+            throw new RuntimeException("Image " + id + " is being modified concurrently, retry later");
         } catch (Exception e) {
             throw new RuntimeException("Error in deleteImageById: " + e.getMessage(), e);
         }
     }
+
+    @Override
+    @WithSpan
+    public long purgeOrphan(String id, LocalDateTime orphanedBefore) {
+        try {
+            // Kiểm tra và xóa trong cùng một lệnh: ảnh vừa được addReference (bỏ orphanedAt) sẽ không khớp
+            Query query = new Query(lastReference(Criteria.where("_id").is(id).and("orphanedAt").lt(orphanedBefore)));
+            ImageDocument imageDocument = mongoTemplate.findAndRemove(query, ImageDocument.class);
+            if (imageDocument == null) {
+                return -1;
+            }
+            return deleteStoredData(imageDocument);
+        } catch (Exception e) {
+            throw new RuntimeException("Error in purgeOrphan: " + e.getMessage(), e);
+        }
+    }
+
+    // Chỉ khớp khi không còn tham chiếu nào khác (ảnh cũ chưa có referenceCount coi như 1)
+    private static Criteria lastReference(Criteria criteria) {
+        return criteria.orOperator(Criteria.where("referenceCount").lte(1), Criteria.where("referenceCount").exists(false));
+    }
+
+    // Document đã bị xóa: dọn cache, dữ liệu gốc và các variant trong storage
+    private long deleteStoredData(ImageDocument imageDocument) throws IOException {
+        imageMetadataCache.invalidate(imageDocument.getId());
+
+        long reclaimed = imageDocument.getSize() != null ? imageDocument.getSize() : 0;
+        if (imageDocument.getStorageKey() != null) {
+            imageStorage.delete(imageDocument.getStorageKey());
+        }
+        for (ImageVariant imageVariant : imageDocument.getVariants().values()) {
+            imageStorage.delete(imageVariant.getStorageKey());
+            reclaimed += imageVariant.getSize() != null ? imageVariant.getSize() : 0;
+        }
+        return reclaimed;
+    }
+
+    // Dùng lại ảnh cùng nội dung; null nếu chưa có hoặc ảnh vừa bị xóa song song
+    private ImageDocument reuseByHash(String originalHash) {
+        return imageRepository.findByOriginalHash(originalHash)
+                .map(existing -> addReference(existing.getId()))
+                .orElse(null);
+    }
+
+    @Override
+    @WithSpan
+    public ImageDocument addReference(String id) {
+        Query query = new Query(Criteria.where("_id").is(id));
+        // Ảnh cũ chưa có referenceCount được tính là 1 (giống lastReference), nên không dùng $inc (sẽ ra 1 thay vì 2).
+        // Được dùng lại thì không còn là ảnh mồ côi
+        AggregationUpdate update = AggregationUpdate.update()
+                .set("referenceCount").toValue(ArithmeticOperators.valueOf(ConditionalOperators.ifNull("referenceCount").then(1)).add(1))
+                .unset("orphanedAt");
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), ImageDocument.class);
+    }
+
+    private static ImageMetadataResponse toMetadata(ImageDocument imageDocument) {
+        return new ImageMetadataResponse(imageDocument.getId(), imageDocument.getContentType(), imageDocument.getSize(),
+                imageDocument.getWidth(), imageDocument.getHeight(), imageDocument.getHash(), imageDocument.getStatus(),
+                RAW_URL_PREFIX + imageDocument.getId());
+    }
+
+    // Đọc kích thước từ header (không decode pixel); không đọc được header hoặc quá giới hạn thì từ chối
+    private Dimension checkDimensions(InputStreamSource source) throws IOException {
+        Dimension dimension;
+        try (InputStream inputStream = source.getInputStream()) {
+            dimension = imageProcessor.readDimensions(inputStream);
+        }
+        if (dimension == null) {
+            throw new RuntimeException("Could not read image dimensions, the format is not supported by the server.");
+        }
+
+        if (!imageUploadProperties.isWithinDimensions(dimension.width, dimension.height)) {
+            throw new RuntimeException("Image dimensions " + dimension.width + "x" + dimension.height + " exceed the allowed limit.");
+        }
+        return dimension;
+    }
+
+    /**
+     * Được lưu trong transaction (tạo introduce kèm ảnh): thread xử lý ảnh chỉ thấy document sau commit,
+     * còn blob trong storage không thuộc transaction nên phải tự xóa khi rollback.
+     */
+    private void deferUntilCommit(ImageDocument imageDocument) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                if (imageDocument.getStatus() == ImageStatus.PROCESSING) {
+                    submitProcessing(imageDocument);
+                }
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    deleteBlobQuietly(imageDocument.getStorageKey());
+                }
+            }
+        });
+    }
+
+    private void deleteBlobQuietly(String storageKey) {
+        try {
+            imageStorage.delete(storageKey);
+        } catch (Exception e) {
+            log.warn("Could not delete image blob {}: {}", storageKey, e.getMessage());
+        }
+    }
+
+    // Hàng đợi xử lý đầy: giữ nguyên ảnh gốc thay vì chặn request upload
+    private void submitProcessing(ImageDocument imageDocument) {
+        try {
+            imageProcessingService.processImage(imageDocument.getId());
+        } catch (TaskRejectedException e) {
+            log.warn("Image processing queue is full, keeping original image {}", imageDocument.getId());
+            imageDocument.setStatus(ImageStatus.READY);
+            mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(imageDocument.getId())),
+                    Update.update("status", ImageStatus.READY), ImageDocument.class);
+            imageMetadataCache.invalidate(imageDocument.getId());
+        }
+    }
 }
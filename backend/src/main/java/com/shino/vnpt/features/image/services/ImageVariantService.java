@@ -0,0 +1,12 @@
+package com.shino.vnpt.features.image.services;
+
+import com.shino.vnpt.features.image.document.ImageDocument;
+import com.shino.vnpt.features.image.document.ImageVariant;
+
+public interface ImageVariantService {
+    /**
+     * @return variant đã lưu (tạo mới nếu chưa có), null nếu nên dùng ảnh gốc
+     */
+    ImageVariant getOrCreateVariant(ImageDocument imageDocument, String variantName);
+    void createVariants(ImageDocument imageDocument);
+}
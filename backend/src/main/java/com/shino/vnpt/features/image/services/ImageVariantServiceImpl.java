@@ -0,0 +1,96 @@
+package com.shino.vnpt.features.image.services;
+
+import com.shino.vnpt.features.image.config.ImageVariantProperties;
+import com.shino.vnpt.features.image.document.ImageDocument;
+import com.shino.vnpt.features.image.document.ImageVariant;
+import com.shino.vnpt.features.image.dto.ProcessedImage;
+import com.shino.vnpt.features.image.enums.ImageStatus;
+import com.shino.vnpt.features.image.repository.ImageRepository;
+import com.shino.vnpt.features.image.storage.ImageStorage;
+import com.shino.vnpt.features.image.utils.HashUtils;
+import com.shino.vnpt.features.image.utils.ImageProcessor;
+import io.micrometer.core.annotation.Timed;
+import io.opentelemetry.instrumentation.annotations.WithSpan;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+@Service
+@Timed(value = "image.variant", histogram = true)
+@RequiredArgsConstructor
+public class ImageVariantServiceImpl implements ImageVariantService {
+    private final ImageVariantProperties imageVariantProperties;
+    private final ImageRepository imageRepository;
+    private final ImageStorage imageStorage;
+    private final ImageProcessor imageProcessor;
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    @WithSpan
+    public ImageVariant getOrCreateVariant(ImageDocument imageDocument, String variantName) {
+        try {
+            Integer width = imageVariantProperties.getVariants().get(variantName);
+            if (width == null) {
+                throw new RuntimeException("Unknown image variant: " + variantName);
+            }
+
+            ImageVariant existing = imageDocument.getVariants() != null ? imageDocument.getVariants().get(variantName) : null;
+            if (existing != null) {
+                return existing;
+            }
+            if (!canResize(imageDocument, width)) {
+                return null;
+            }
+
+            ProcessedImage processedImage;
+            try (InputStream inputStream = imageStorage.open(imageDocument.getStorageKey())) {
+                processedImage = imageProcessor.resizeImage(inputStream, width);
+            }
+            if (processedImage == null) {
+                return null;
+            }
+
+            byte[] bytes = processedImage.getBytes();
+            String storageKey = imageStorage.store(new ByteArrayInputStream(bytes), processedImage.getContentType());
+            ImageVariant imageVariant = new ImageVariant(storageKey, processedImage.getContentType(), (long) bytes.length,
+                    HashUtils.sha256Hex(bytes), processedImage.getWidth(), processedImage.getHeight());
+
+            // Chỉ ghi nếu chưa có request nào khác tạo cùng variant
+            Query query = new Query(Criteria.where("_id").is(imageDocument.getId()).and("variants." + variantName).exists(false));
+            Update update = new Update().set("variants." + variantName, imageVariant);
+            if (mongoTemplate.updateFirst(query, update, ImageDocument.class).getModifiedCount() == 0) {
+                imageStorage.delete(storageKey);
+                return imageRepository.findById(imageDocument.getId())
+                        .map(document -> document.getVariants().get(variantName))
+                        .orElse(null);
+            }
+
+            imageDocument.getVariants().put(variantName, imageVariant);
+            return imageVariant;
+        } catch (Exception e) {
+            throw new RuntimeException("Error in getOrCreateVariant: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    @WithSpan
+    public void createVariants(ImageDocument imageDocument) {
+        for (String variantName : imageVariantProperties.getVariants().keySet()) {
+            getOrCreateVariant(imageDocument, variantName);
+        }
+    }
+
+    // Ảnh Base64 cũ, ảnh đang xử lý, định dạng không hỗ trợ hoặc đã đủ nhỏ thì dùng ảnh gốc
+    private boolean canResize(ImageDocument imageDocument, int width) {
+        return imageDocument.getStorageKey() != null
+                && imageDocument.getStatus() != ImageStatus.PROCESSING
+                && ImageProcessor.isSupported(imageDocument.getContentType())
+                && (imageDocument.getWidth() == null || imageDocument.getWidth() > width);
+    }
+}
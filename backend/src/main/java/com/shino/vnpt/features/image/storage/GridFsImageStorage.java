@@ -0,0 +1,45 @@
+package com.shino.vnpt.features.image.storage;
+
+import com.mongodb.client.gridfs.GridFSBucket;
+import com.mongodb.client.gridfs.GridFSBuckets;
+import com.mongodb.client.gridfs.model.GridFSUploadOptions;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+
+@Component
+@ConditionalOnProperty(name = "image.storage.type", havingValue = "gridfs", matchIfMissing = true)
+public class GridFsImageStorage implements ImageStorage {
+    // Bucket "images" -> 2 collection images.files / images.chunks
+    private static final String BUCKET_NAME = "images";
+    private static final int CHUNK_SIZE = 255 * 1024;
+
+    private final GridFSBucket gridFSBucket;
+
+    public GridFsImageStorage(MongoDatabaseFactory mongoDatabaseFactory) {
+        this.gridFSBucket = GridFSBuckets.create(mongoDatabaseFactory.getMongoDatabase(), BUCKET_NAME);
+    }
+
+    @Override
+    public String store(InputStream inputStream, String contentType) {
+        GridFSUploadOptions options = new GridFSUploadOptions()
+                .chunkSizeBytes(CHUNK_SIZE)
+                .metadata(new Document("contentType", contentType));
+        ObjectId fileId = gridFSBucket.uploadFromStream(new ObjectId().toHexString(), inputStream, options);
+        return fileId.toHexString();
+    }
+
+    @Override
+    public InputStream open(String storageKey) {
+        return gridFSBucket.openDownloadStream(new ObjectId(storageKey));
+    }
+
+    @Override
+    public void delete(String storageKey) {
+        gridFSBucket.delete(new ObjectId(storageKey));
+    }
+}
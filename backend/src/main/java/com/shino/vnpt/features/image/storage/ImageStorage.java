@@ -0,0 +1,20 @@
+package com.shino.vnpt.features.image.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Nơi lưu dữ liệu nhị phân của ảnh. {@code ImageDocument} chỉ giữ metadata và {@code storageKey}.
+ * Chọn implementation qua {@code image.storage.type} (gridfs | local).
+ */
+public interface ImageStorage {
+    /**
+     * Ghi toàn bộ stream vào storage theo từng chunk, không giữ cả file trong heap.
+     * @return khóa dùng để đọc/xóa lại dữ liệu
+     */
+    String store(InputStream inputStream, String contentType) throws IOException;
+
+    InputStream open(String storageKey) throws IOException;
+
+    void delete(String storageKey) throws IOException;
+}
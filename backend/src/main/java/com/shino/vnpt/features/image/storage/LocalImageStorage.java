@@ -0,0 +1,56 @@
+package com.shino.vnpt.features.image.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.UUID;
+
+@Component
+@ConditionalOnProperty(name = "image.storage.type", havingValue = "local")
+public class LocalImageStorage implements ImageStorage {
+    private final Path rootDirectory;
+
+    public LocalImageStorage(@Value("${image.storage.local.root:./data/images}") String rootDirectory) {
+        this.rootDirectory = Paths.get(rootDirectory).toAbsolutePath().normalize();
+    }
+
+    @Override
+    public String store(InputStream inputStream, String contentType) throws IOException {
+        String storageKey = UUID.randomUUID().toString();
+        Path target = resolve(storageKey);
+        Files.createDirectories(target.getParent());
+        try {
+            Files.copy(inputStream, target);
+        } catch (IOException e) {
+            // Không để lại file ghi dở (ví dụ upload vượt giới hạn dung lượng)
+            Files.deleteIfExists(target);
+            throw e;
+        }
+        return storageKey;
+    }
+
+    @Override
+    public InputStream open(String storageKey) throws IOException {
+        return Files.newInputStream(resolve(storageKey));
+    }
+
+    @Override
+    public void delete(String storageKey) throws IOException {
+        Files.deleteIfExists(resolve(storageKey));
+    }
+
+    // Chia thư mục theo 2 ký tự đầu để tránh một thư mục chứa quá nhiều file
+    private Path resolve(String storageKey) throws IOException {
+        Path path = rootDirectory.resolve(storageKey.substring(0, 2)).resolve(storageKey).normalize();
+        if (!path.startsWith(rootDirectory)) {
+            throw new IOException("Invalid storage key: " + storageKey);
+        }
+        return path;
+    }
+}
@@ -0,0 +1,42 @@
+package com.shino.vnpt.features.image.storage;
+
+import org.springframework.core.io.AbstractResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Resource đọc lười từ {@link ImageStorage}. Biết trước độ dài nên Spring có thể phục vụ Range (206)
+ * mà không phải nạp toàn bộ ảnh vào heap.
+ */
+public class StoredImageResource extends AbstractResource {
+    private final ImageStorage imageStorage;
+    private final String storageKey;
+    private final long contentLength;
+
+    public StoredImageResource(ImageStorage imageStorage, String storageKey, long contentLength) {
+        this.imageStorage = imageStorage;
+        this.storageKey = storageKey;
+        this.contentLength = contentLength;
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return imageStorage.open(storageKey);
+    }
+
+    @Override
+    public long contentLength() {
+        return contentLength;
+    }
+
+    @Override
+    public boolean exists() {
+        return true;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Stored image [" + storageKey + "]";
+    }
+}
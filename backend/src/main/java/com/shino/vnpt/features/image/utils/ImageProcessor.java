@@ -1,59 +1,224 @@
 package com.shino.vnpt.features.image.utils;
 
-import org.springframework.scheduling.annotation.Async;
-import org.springframework.web.multipart.MultipartFile;
+import com.shino.vnpt.features.image.dto.ProcessedImage;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.opentelemetry.instrumentation.annotations.WithSpan;
+import org.apache.commons.io.input.CountingInputStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
 
+import javax.imageio.IIOImage;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
 import java.awt.*;
 import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Locale;
 
-@Async
+@Component
 public class ImageProcessor {
     // Chất lượng nén (0.0 - 1.0)
-    private static final float COMPRESSION_QUALITY = 0.7f;
+    private final float compressionQuality;
+    // Ảnh gốc rộng hơn sẽ được thu nhỏ khi xử lý
+    private final int maxWidth;
+    private final MeterRegistry meterRegistry;
+
+    public ImageProcessor(MeterRegistry meterRegistry,
+                          @Value("${image.processing.jpeg-quality:0.7}") float compressionQuality,
+                          @Value("${image.processing.max-width:2560}") int maxWidth) {
+        this.meterRegistry = meterRegistry;
+        this.compressionQuality = compressionQuality;
+        this.maxWidth = maxWidth;
+    }
+
+    public static boolean isSupported(String contentType) {
+        return "image/png".equalsIgnoreCase(contentType) || "image/jpeg".equalsIgnoreCase(contentType);
+    }
 
     /**
-     * Xử lý ảnh: nén JPEG hoặc chuyển PNG sang JPEG rồi nén
-     * @param file Ảnh đầu vào
+     * Xử lý ảnh: nén JPEG hoặc chuyển PNG sang JPEG rồi nén. Metadata (EXIF, ICC...) bị loại bỏ.
+     * Ảnh rộng hơn maxWidth được thu nhỏ ngay lúc decode (subsampling) để heap không tỉ lệ với ảnh gốc.
+     * @param inputStream Ảnh đầu vào (chỉ decode một lần)
+     * @param contentType Loại ảnh đầu vào
      * @return Dữ liệu ảnh đã xử lý
      * @throws IOException Nếu có lỗi khi đọc/ghi ảnh
      */
-    public static byte[] processImage(MultipartFile file) throws IOException {
+    @WithSpan
+    public ProcessedImage processImage(InputStream inputStream, String contentType) throws IOException {
         // Kiểm tra loại ảnh
-        String contentType = file.getContentType();
         if (contentType == null) {
             throw new IOException("Không xác định được loại ảnh");
         }
+        if (!isSupported(contentType)) {
+            throw new IOException("Định dạng ảnh không được hỗ trợ. Chỉ chấp nhận JPEG hoặc PNG");
+        }
+
+        CountingInputStream countingInputStream = new CountingInputStream(inputStream);
+        try (ImageInputStream imageInputStream = ImageIO.createImageInputStream(countingInputStream)) {
+            ImageReader reader = openReader(imageInputStream);
+            try {
+                int sourceWidth = reader.getWidth(0);
+                int sourceHeight = reader.getHeight(0);
+                int targetWidth = Math.min(sourceWidth, maxWidth);
+                int targetHeight = Math.max(1, Math.round((float) sourceHeight * targetWidth / sourceWidth));
+
+                BufferedImage decoded = decode(reader, sourceWidth, targetWidth);
+                codecBytes("in", formatOf(reader)).record(countingInputStream.getByteCount());
+
+                // PNG (hoặc ảnh có kênh alpha) phải chuyển sang RGB trước khi ghi JPEG
+                boolean needsRgb = "image/png".equalsIgnoreCase(contentType)
+                        || decoded.getColorModel().hasAlpha()
+                        || decoded.getWidth() != targetWidth;
+                BufferedImage jpegImage = needsRgb ? toRgb(decoded, targetWidth, targetHeight) : decoded;
+
+                return new ProcessedImage(writeJpeg(jpegImage), "image/jpeg", jpegImage.getWidth(), jpegImage.getHeight());
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Thu nhỏ ảnh về chiều rộng targetWidth (giữ tỉ lệ). Dùng subsampling khi decode nên ảnh nguồn
+     * rất lớn cũng chỉ chiếm bộ nhớ xấp xỉ 2 lần ảnh đích.
+     * @return ảnh JPEG đã thu nhỏ, hoặc null nếu ảnh gốc không rộng hơn targetWidth
+     */
+    @WithSpan
+    public ProcessedImage resizeImage(InputStream inputStream, int targetWidth) throws IOException {
+        CountingInputStream countingInputStream = new CountingInputStream(inputStream);
+        try (ImageInputStream imageInputStream = ImageIO.createImageInputStream(countingInputStream)) {
+            ImageReader reader = openReader(imageInputStream);
+            try {
+                int sourceWidth = reader.getWidth(0);
+                int sourceHeight = reader.getHeight(0);
+                if (sourceWidth <= targetWidth) {
+                    return null;
+                }
+
+                BufferedImage decoded = decode(reader, sourceWidth, targetWidth);
+                codecBytes("in", formatOf(reader)).record(countingInputStream.getByteCount());
 
-        // Đọc ảnh gốc
-        BufferedImage originalImage = ImageIO.read(file.getInputStream());
-        if (originalImage == null) {
+                int targetHeight = Math.max(1, Math.round((float) sourceHeight * targetWidth / sourceWidth));
+                BufferedImage resized = toRgb(decoded, targetWidth, targetHeight);
+                return new ProcessedImage(writeJpeg(resized), "image/jpeg", targetWidth, targetHeight);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Đọc kích thước từ header, không decode pixel. WebP được đọc trực tiếp vì ImageIO không hỗ trợ.
+     * @return kích thước ảnh, hoặc null nếu không đọc được định dạng này
+     */
+    public Dimension readDimensions(InputStream inputStream) throws IOException {
+        BufferedInputStream bufferedInputStream = new BufferedInputStream(inputStream);
+        bufferedInputStream.mark(ImageSniffer.WEBP_HEADER_LENGTH);
+        byte[] header = bufferedInputStream.readNBytes(ImageSniffer.WEBP_HEADER_LENGTH);
+        if ("image/webp".equals(ImageSniffer.detectContentType(header))) {
+            return ImageSniffer.readWebpDimensions(header);
+        }
+        bufferedInputStream.reset();
+
+        try (ImageInputStream imageInputStream = ImageIO.createImageInputStream(bufferedInputStream)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(imageInputStream);
+            if (!readers.hasNext()) {
+                return null;
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageInputStream, true, true);
+                return new Dimension(reader.getWidth(0), reader.getHeight(0));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private ImageReader openReader(ImageInputStream imageInputStream) throws IOException {
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(imageInputStream);
+        if (!readers.hasNext()) {
             throw new IOException("Không thể đọc ảnh từ dữ liệu đầu vào");
         }
 
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ImageReader reader = readers.next();
+        reader.setInput(imageInputStream, true, true);
+        return reader;
+    }
 
-        if ("image/png".equalsIgnoreCase(contentType)) {
-            // Chuyển PNG sang JPEG
-            BufferedImage jpegImage = new BufferedImage(
-                    originalImage.getWidth(),
-                    originalImage.getHeight(),
-                    BufferedImage.TYPE_INT_RGB);
-
-            // Vẽ ảnh mới với nền trắng (để tránh nền trong suốt thành đen)
-            jpegImage.createGraphics().drawImage(originalImage, 0, 0, Color.WHITE, null);
-
-            // Ghi ảnh JPEG với chất lượng nén
-            ImageIO.write(jpegImage, "jpg", outputStream);
-        } else if ("image/jpeg".equalsIgnoreCase(contentType)) {
-            // Nén ảnh JPEG trực tiếp
-            ImageIO.write(originalImage, "jpg", outputStream);
-        } else {
-            throw new IOException("Định dạng ảnh không được hỗ trợ. Chỉ chấp nhận JPEG hoặc PNG");
+    // Chỉ đọc mỗi n pixel -> không decode toàn bộ ảnh gốc vào heap
+    private BufferedImage decode(ImageReader reader, int sourceWidth, int targetWidth) throws IOException {
+        int subsampling = Math.max(1, sourceWidth / targetWidth);
+        ImageReadParam readParam = reader.getDefaultReadParam();
+        readParam.setSourceSubsampling(subsampling, subsampling, 0, 0);
+
+        Timer.Sample decodeSample = Timer.start(meterRegistry);
+        BufferedImage decoded = reader.read(0, readParam);
+        decodeSample.stop(codecTimer("decode", formatOf(reader)));
+        return decoded;
+    }
+
+    private static String formatOf(ImageReader reader) throws IOException {
+        return reader.getFormatName().toLowerCase(Locale.ROOT);
+    }
+
+    // Vẽ lại sang RGB với nền trắng (để tránh nền trong suốt thành đen), có thể kèm thay đổi kích thước
+    private BufferedImage toRgb(BufferedImage source, int width, int height) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(source, 0, 0, width, height, Color.WHITE, null);
+        } finally {
+            graphics.dispose();
         }
+        return target;
+    }
 
+    // Ghi ảnh JPEG với chất lượng nén; IIOImage không kèm metadata nên EXIF bị bỏ
+    private byte[] writeJpeg(BufferedImage image) throws IOException {
+        Timer.Sample encodeSample = Timer.start(meterRegistry);
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(compressionQuality);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (ImageOutputStream imageOutputStream = ImageIO.createImageOutputStream(outputStream)) {
+            writer.setOutput(imageOutputStream);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        encodeSample.stop(codecTimer("encode", "jpeg"));
+        codecBytes("out", "jpeg").record(outputStream.size());
         return outputStream.toByteArray();
     }
+
+    private Timer codecTimer(String operation, String format) {
+        return Timer.builder("image.codec")
+                .tag("operation", operation)
+                .tag("format", format)
+                .register(meterRegistry);
+    }
+
+    private DistributionSummary codecBytes(String direction, String format) {
+        return DistributionSummary.builder("image.codec.bytes")
+                .baseUnit("bytes")
+                .tag("direction", direction)
+                .tag("format", format)
+                .register(meterRegistry);
+    }
 }
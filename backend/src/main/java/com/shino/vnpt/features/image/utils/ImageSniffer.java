@@ -0,0 +1,88 @@
+package com.shino.vnpt.features.image.utils;
+
+import java.awt.*;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+
+/**
+ * Nhận diện định dạng ảnh từ các byte đầu (magic bytes), không tin Content-Type do client gửi lên.
+ */
+public final class ImageSniffer {
+    public static final int HEADER_LENGTH = 12;
+    // RIFF header + chunk header + đủ byte để đọc kích thước của VP8, VP8L và VP8X
+    public static final int WEBP_HEADER_LENGTH = 30;
+
+    private ImageSniffer() {
+    }
+
+    /**
+     * Đọc trước các byte đầu rồi reset, stream vẫn đọc được từ đầu.
+     * @return content type nhận diện được, null nếu không phải định dạng ảnh được hỗ trợ
+     */
+    public static String detectContentType(BufferedInputStream inputStream) throws IOException {
+        inputStream.mark(HEADER_LENGTH);
+        byte[] header = inputStream.readNBytes(HEADER_LENGTH);
+        inputStream.reset();
+        return detectContentType(header);
+    }
+
+    public static String detectContentType(byte[] header) {
+        if (startsWith(header, 0, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return "image/png";
+        }
+        if (startsWith(header, 0, 0xFF, 0xD8, 0xFF)) {
+            return "image/jpeg";
+        }
+        if (startsWith(header, 0, 'G', 'I', 'F', '8')) {
+            return "image/gif";
+        }
+        if (startsWith(header, 0, 'R', 'I', 'F', 'F') && startsWith(header, 8, 'W', 'E', 'B', 'P')) {
+            return "image/webp";
+        }
+        return null;
+    }
+
+    /**
+     * ImageIO không có reader WebP: đọc kích thước thẳng từ chunk đầu tiên (VP8, VP8L hoặc VP8X).
+     * @return kích thước ảnh, hoặc null nếu không phải WebP hoặc header không hợp lệ
+     */
+    public static Dimension readWebpDimensions(byte[] header) {
+        if (!"image/webp".equals(detectContentType(header)) || header.length < WEBP_HEADER_LENGTH) {
+            return null;
+        }
+        // Ảnh lossy: sau frame tag 3 byte là start code 9d 01 2a, rồi width/height 14 bit
+        if (startsWith(header, 12, 'V', 'P', '8', ' ') && startsWith(header, 23, 0x9D, 0x01, 0x2A)) {
+            return new Dimension(littleEndian(header, 26, 2) & 0x3FFF, littleEndian(header, 28, 2) & 0x3FFF);
+        }
+        // Ảnh lossless: byte chữ ký 0x2f, rồi (width - 1) và (height - 1) mỗi cái 14 bit
+        if (startsWith(header, 12, 'V', 'P', '8', 'L') && startsWith(header, 20, 0x2F)) {
+            int bits = littleEndian(header, 21, 4);
+            return new Dimension((bits & 0x3FFF) + 1, ((bits >>> 14) & 0x3FFF) + 1);
+        }
+        // Định dạng mở rộng (alpha, animation): kích thước canvas (width - 1) và (height - 1) mỗi cái 24 bit
+        if (startsWith(header, 12, 'V', 'P', '8', 'X')) {
+            return new Dimension(littleEndian(header, 24, 3) + 1, littleEndian(header, 27, 3) + 1);
+        }
+        return null;
+    }
+
+    private static int littleEndian(byte[] header, int offset, int length) {
+        int value = 0;
+        for (int i = length - 1; i >= 0; i--) {
+            value = (value << 8) | (header[offset + i] & 0xFF);
+        }
+        return value;
+    }
+
+    private static boolean startsWith(byte[] header, int offset, int... expected) {
+        if (header.length < offset + expected.length) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if ((header[offset + i] & 0xFF) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
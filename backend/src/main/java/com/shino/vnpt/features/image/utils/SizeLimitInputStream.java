@@ -0,0 +1,50 @@
+package com.shino.vnpt.features.image.utils;
+
+import org.apache.commons.io.input.ProxyInputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Đếm byte và dừng ngay khi vượt quá maxBytes, không cần biết trước kích thước file.
+ */
+public class SizeLimitInputStream extends ProxyInputStream {
+    private final long maxBytes;
+    private long byteCount;
+    private boolean limitExceeded;
+
+    public SizeLimitInputStream(InputStream inputStream, long maxBytes) {
+        super(inputStream);
+        this.maxBytes = maxBytes;
+    }
+
+    public long getByteCount() {
+        return byteCount;
+    }
+
+    public boolean isLimitExceeded() {
+        return limitExceeded;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        count(skipped);
+        return skipped;
+    }
+
+    @Override
+    protected void afterRead(int n) throws IOException {
+        count(n);
+    }
+
+    private void count(long n) throws IOException {
+        if (n > 0) {
+            byteCount += n;
+        }
+        if (byteCount > maxBytes) {
+            limitExceeded = true;
+            throw new IOException("File exceeds the maximum size of " + maxBytes + " bytes");
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.shino.vnpt.features.introduce.cache;
+
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.shino.vnpt.core.ChangeStreamHandler;
+import com.shino.vnpt.features.introduce.document.IntroduceDocument;
+import com.shino.vnpt.features.introduce.enums.IntroduceChangeType;
+import com.shino.vnpt.features.introduce.event.IntroduceEventPublisher;
+import com.shino.vnpt.features.introduce.search.IntroduceSearchIndex;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Ghi từ instance khác: bỏ snapshot danh sách và cập nhật đúng bản ghi trong index tìm kiếm.
+ */
+@Component
+@RequiredArgsConstructor
+public class IntroduceChangeStreamHandler implements ChangeStreamHandler {
+    private static final Set<String> STATUS_FIELDS = Set.of("status", "modifiedAt", "version");
+
+    private final MongoTemplate mongoTemplate;
+    private final IntroduceListCache introduceListCache;
+    private final IntroduceSearchIndex introduceSearchIndex;
+    private final IntroduceEventPublisher introduceEventPublisher;
+
+    @Override
+    public String collection() {
+        return mongoTemplate.getCollectionName(IntroduceDocument.class);
+    }
+
+    @Override
+    public void onChange(ChangeStreamDocument<Document> event) {
+        String id = ChangeStreamHandler.documentId(event);
+        switch (event.getOperationType()) {
+            case INSERT, UPDATE, REPLACE -> {
+                introduceListCache.invalidate();
+                // fullDocument null: bản ghi đã bị xóa trước khi lookup
+                if (event.getFullDocument() != null) {
+                    IntroduceDocument introduceDocument = mongoTemplate.getConverter().read(IntroduceDocument.class, event.getFullDocument());
+                    introduceSearchIndex.index(introduceDocument);
+                    introduceEventPublisher.publishReplicated(changeTypeOf(event), id, introduceDocument);
+                } else if (id != null) {
+                    introduceSearchIndex.remove(id);
+                }
+            }
+            case DELETE -> {
+                introduceListCache.invalidate();
+                if (id != null) {
+                    introduceSearchIndex.remove(id);
+                    introduceEventPublisher.publishReplicated(IntroduceChangeType.DELETED, id, null);
+                }
+            }
+            default -> resync();
+        }
+    }
+
+    @Override
+    public void resync() {
+        introduceListCache.invalidate();
+        introduceSearchIndex.rebuild(() -> mongoTemplate.findAll(IntroduceDocument.class));
+        introduceEventPublisher.publishReplicated(IntroduceChangeType.RESET, null, null);
+    }
+
+    // Update chỉ đụng status (và version, modifiedAt) là đổi trạng thái
+    private static IntroduceChangeType changeTypeOf(ChangeStreamDocument<Document> event) {
+        return switch (event.getOperationType()) {
+            case INSERT -> IntroduceChangeType.CREATED;
+            case UPDATE -> event.getUpdateDescription() != null
+                    && event.getUpdateDescription().getUpdatedFields() != null
+                    && event.getUpdateDescription().getUpdatedFields().containsKey("status")
+                    && STATUS_FIELDS.containsAll(event.getUpdateDescription().getUpdatedFields().keySet())
+                    ? IntroduceChangeType.STATUS_CHANGED
+                    : IntroduceChangeType.UPDATED;
+            default -> IntroduceChangeType.UPDATED;
+        };
+    }
+}
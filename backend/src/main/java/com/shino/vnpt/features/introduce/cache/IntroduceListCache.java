@@ -0,0 +1,136 @@
+package com.shino.vnpt.features.introduce.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shino.vnpt.features.image.utils.HashUtils;
+import com.shino.vnpt.features.introduce.document.IntroduceDocument;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Snapshot đã sắp xếp, bất biến của danh sách introduce. Đọc không chạm MongoDB khi còn hạn;
+ * mọi thao tác ghi gọi {@link #invalidate()} để snapshot được dựng lại ở lần đọc kế tiếp.
+ */
+@Slf4j
+@Component
+public class IntroduceListCache {
+    private final AtomicReference<IntroduceListSnapshot> snapshot = new AtomicReference<>();
+    // Tăng mỗi lần ghi: snapshot dựng từ dữ liệu cũ (trước khi ghi) sẽ không được lưu
+    private final AtomicLong version = new AtomicLong();
+    // Thời điểm ghi gần nhất mà node này biết (xóa không để lại modifiedAt nên cần mốc riêng)
+    private final AtomicLong lastWriteAt = new AtomicLong(-1);
+    // Chỉ cảnh báo một lần mỗi khi danh sách vượt max-entries, tránh log mỗi lần dựng lại
+    private final AtomicBoolean oversizeWarned = new AtomicBoolean();
+
+    private final ObjectMapper objectMapper;
+    private final long ttlNanos;
+    private final int maxEntries;
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Timer rebuildTimer;
+
+    public IntroduceListCache(MeterRegistry meterRegistry,
+                              ObjectMapper objectMapper,
+                              @Value("${introduce.cache.ttl:PT5M}") Duration ttl,
+                              @Value("${introduce.cache.max-entries:5000}") int maxEntries) {
+        this.objectMapper = objectMapper;
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+        this.hitCounter = Counter.builder("introduce.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.missCounter = Counter.builder("introduce.cache.requests").tag("result", "miss").register(meterRegistry);
+        this.rebuildTimer = Timer.builder("introduce.cache.rebuild").register(meterRegistry);
+        Gauge.builder("introduce.cache.size", snapshot, ref -> ref.get() == null ? 0 : ref.get().getItems().size())
+                .register(meterRegistry);
+    }
+
+    public List<IntroduceDocument> get(Supplier<List<IntroduceDocument>> loader) {
+        return getSnapshot(loader).getItems();
+    }
+
+    public IntroduceListSnapshot getSnapshot(Supplier<List<IntroduceDocument>> loader) {
+        IntroduceListSnapshot current = snapshot.get();
+        if (current != null && !isExpired(current)) {
+            hitCounter.increment();
+            return current;
+        }
+
+        missCounter.increment();
+        return rebuild(loader);
+    }
+
+    public void invalidate() {
+        version.incrementAndGet();
+        lastWriteAt.set(System.currentTimeMillis());
+        snapshot.set(null);
+    }
+
+    // Chỉ một thread dựng lại, các thread khác chờ rồi dùng luôn kết quả
+    private synchronized IntroduceListSnapshot rebuild(Supplier<List<IntroduceDocument>> loader) {
+        IntroduceListSnapshot current = snapshot.get();
+        if (current != null && !isExpired(current)) {
+            return current;
+        }
+
+        long expectedVersion = version.get();
+        IntroduceListSnapshot rebuilt = rebuildTimer.record(() -> render(List.copyOf(loader.get())));
+        // Vẫn lưu khi vượt max-entries: bỏ cache thì mọi request /all sẽ quét, serialize và gzip lại trong lock này
+        int size = rebuilt.getItems().size();
+        if (size > maxEntries) {
+            if (oversizeWarned.compareAndSet(false, true)) {
+                log.warn("Introduce listing has {} entries, above introduce.cache.max-entries={}; consider paging the listing",
+                        size, maxEntries);
+            }
+        } else {
+            oversizeWarned.set(false);
+        }
+        if (version.get() == expectedVersion) {
+            snapshot.set(rebuilt);
+        }
+        return rebuilt;
+    }
+
+    // Serialize một lần cho mọi request (JSON + gzip), ETag tính từ nội dung
+    private IntroduceListSnapshot render(List<IntroduceDocument> items) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(items);
+            ByteArrayOutputStream gzipOutput = new ByteArrayOutputStream(json.length / 4 + 64);
+            try (GZIPOutputStream gzipStream = new GZIPOutputStream(gzipOutput)) {
+                gzipStream.write(json);
+            }
+
+            long lastModified = items.stream()
+                    .map(IntroduceDocument::getModifiedAt)
+                    .filter(Objects::nonNull)
+                    .max(LocalDateTime::compareTo)
+                    .map(modifiedAt -> modifiedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli())
+                    .orElse(-1L);
+            lastModified = Math.max(lastModified, lastWriteAt.get());
+
+            return new IntroduceListSnapshot(items, json, gzipOutput.toByteArray(), HashUtils.sha256Hex(json), lastModified, System.nanoTime());
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not serialize introduce listing", e);
+        }
+    }
+
+    private boolean isExpired(IntroduceListSnapshot current) {
+        return System.nanoTime() - current.getBuiltAt() > ttlNanos;
+    }
+}
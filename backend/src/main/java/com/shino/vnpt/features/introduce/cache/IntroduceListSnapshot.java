@@ -0,0 +1,23 @@
+package com.shino.vnpt.features.introduce.cache;
+
+import com.shino.vnpt.features.introduce.document.IntroduceDocument;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Danh sách introduce đã sắp xếp cùng body JSON/gzip được serialize sẵn.
+ */
+@Getter
+@AllArgsConstructor
+public class IntroduceListSnapshot {
+    private final List<IntroduceDocument> items;
+    private final byte[] json;
+    private final byte[] gzipJson;
+    // SHA-256 của body JSON
+    private final String etag;
+    // epoch millis, -1 nếu không xác định
+    private final long lastModified;
+    private final long builtAt;
+}
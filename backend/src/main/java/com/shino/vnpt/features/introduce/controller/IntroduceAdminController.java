@@ -3,19 +3,28 @@ package com.shino.vnpt.features.introduce.controller;
 import com.shino.vnpt.features.introduce.dto.request.IntroduceCreateRequest;
 import com.shino.vnpt.features.introduce.dto.request.IntroduceUpdateRequest;
 import com.shino.vnpt.features.introduce.enums.Status;
+import com.shino.vnpt.features.introduce.service.IntroduceBulkService;
 import com.shino.vnpt.features.introduce.service.IntroduceService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
 
 @RestController
 @RequiredArgsConstructor
 @CrossOrigin(origins = "*", allowedHeaders = "*")
 @RequestMapping("/api/v1/admin/introduce")
 public class IntroduceAdminController {
+    private static final String NDJSON = "application/x-ndjson";
+
     private final IntroduceService introduceService;
+    private final IntroduceBulkService introduceBulkService;
 
     @PostMapping(value = "/create", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<?> createIntroduce(@ModelAttribute IntroduceCreateRequest introduceCreateRequest, @RequestPart("file") MultipartFile multipartFile) {
@@ -30,6 +39,8 @@ public class IntroduceAdminController {
     public ResponseEntity<?> updateIntroduce(@RequestPart String id, @ModelAttribute IntroduceUpdateRequest introduceUpdateRequest, @RequestPart(value = "file", required = false) MultipartFile multipartFile) {
         try {
             return ResponseEntity.ok(introduceService.updateIntroduce(id, introduceUpdateRequest, multipartFile));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -52,4 +63,25 @@ public class IntroduceAdminController {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
+
+    /**
+     * Import nhiều introduce từ NDJSON (mỗi dòng một IntroduceBulkRow), trả về số dòng đã insert và lỗi theo dòng.
+     */
+    @PostMapping(value = "/import", consumes = {NDJSON, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<?> importIntroduces(InputStream inputStream) {
+        try {
+            return ResponseEntity.ok(introduceBulkService.importNdjson(inputStream));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping(value = "/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportIntroduces(@RequestParam(value = "includeImages", defaultValue = "false") boolean includeImages) {
+        StreamingResponseBody body = outputStream -> introduceBulkService.exportNdjson(outputStream, includeImages);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .header("Content-Disposition", "attachment; filename=\"introduce.ndjson\"")
+                .body(body);
+    }
 }
@@ -1,27 +1,169 @@
 package com.shino.vnpt.features.introduce.controller;
 
 
+import com.shino.vnpt.features.introduce.cache.IntroduceListSnapshot;
+import com.shino.vnpt.features.introduce.enums.Status;
+import com.shino.vnpt.features.introduce.event.IntroduceSseStream;
 import com.shino.vnpt.features.introduce.service.IntroduceService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequiredArgsConstructor
 @CrossOrigin(origins = "*", allowedHeaders = "*")
 @RequestMapping("/api/v1/introduce")
 public class IntroduceController {
+    private static final String GZIP_ETAG_SUFFIX = "-gz";
+
     private final IntroduceService introduceService;
+    private final IntroduceSseStream introduceSseStream;
 
+    /**
+     * Trả body JSON đã serialize sẵn (gzip nếu client hỗ trợ). If-None-Match / If-Modified-Since
+     * trả 304 mà không serialize gì.
+     */
     @GetMapping("/all")
-    public ResponseEntity<?> getAllIntroduce() {
+    public ResponseEntity<?> getAllIntroduce(@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                             WebRequest webRequest) {
+        try {
+            IntroduceListSnapshot snapshot = introduceService.getAllIntroduceSnapshot();
+            boolean gzip = acceptsGzip(acceptEncoding);
+            // ETag mạnh phải khác nhau giữa body gzip và body gốc
+            String etag = gzip ? snapshot.getEtag() + GZIP_ETAG_SUFFIX : snapshot.getEtag();
+            if (webRequest.checkNotModified(matchedEtag(webRequest, snapshot.getEtag(), etag), snapshot.getLastModified())) {
+                // Spring đã ghi 304 + ETag, không cần body; 304 cũng phải mang Vary như 200
+                if (webRequest instanceof ServletWebRequest servletWebRequest && servletWebRequest.getResponse() != null) {
+                    servletWebRequest.getResponse().setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                }
+                return null;
+            }
+
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .contentType(MediaType.APPLICATION_JSON);
+            if (snapshot.getLastModified() >= 0) {
+                response.lastModified(snapshot.getLastModified());
+            }
+            if (gzip) {
+                response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+            }
+            return response.body(gzip ? snapshot.getGzipJson() : snapshot.getJson());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Cùng nội dung nên bản nào client đang giữ (gzip hay không) cũng được trả 304, kèm đúng ETag của bản đó
+    private static String matchedEtag(WebRequest webRequest, String hash, String etag) {
+        String[] ifNoneMatch = webRequest.getHeaderValues(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch == null) {
+            return etag;
+        }
+        for (String header : ifNoneMatch) {
+            for (String candidate : header.split(",")) {
+                String value = candidate.trim();
+                if (value.startsWith("W/")) {
+                    value = value.substring(2);
+                }
+                value = value.replace("\"", "");
+                if (value.equals(hash) || value.equals(hash + GZIP_ETAG_SUFFIX)) {
+                    return value;
+                }
+            }
+        }
+        return etag;
+    }
+
+    // Theo q-value của Accept-Encoding: "gzip;q=0" là từ chối gzip; "*" áp dụng khi gzip không được liệt kê
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzipQuality = null;
+        Double wildcardQuality = null;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.split(";");
+            String coding = tokens[0].trim();
+            double quality = 1.0;
+            for (int i = 1; i < tokens.length; i++) {
+                String parameter = tokens[i].trim();
+                if (parameter.regionMatches(true, 0, "q=", 0, 2)) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (coding.equalsIgnoreCase("gzip") || coding.equalsIgnoreCase("x-gzip")) {
+                gzipQuality = quality;
+            } else if (coding.equals("*")) {
+                wildcardQuality = quality;
+            }
+        }
+        Double quality = gzipQuality != null ? gzipQuality : wildcardQuality;
+        return quality != null && quality > 0;
+    }
+
+    @GetMapping("/all-with-images")
+    public ResponseEntity<?> getAllIntroduceWithImages() {
+        try {
+            return ResponseEntity.ok(introduceService.getAllIntroduceWithImages());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Danh sách đã lọc/sắp xếp ở MongoDB. Phân trang bằng ?offset= hoặc keyset ?after= (nextCursor của trang trước).
+     */
+    @GetMapping("/list")
+    public ResponseEntity<?> getIntroducePage(@RequestParam(value = "status", required = false) Status status,
+                                              @RequestParam(value = "after", required = false) String after,
+                                              @RequestParam(value = "offset", defaultValue = "0") int offset,
+                                              @RequestParam(value = "limit", defaultValue = "20") int limit) {
         try {
-            return ResponseEntity.ok(introduceService.getAllIntroduce());
+            return ResponseEntity.ok(introduceService.getIntroducePage(status, after, offset, limit));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
 
+    /**
+     * Tìm theo title, description, tag (tiền tố và sai chính tả một ký tự), kèm số lượng theo tag/status.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> searchIntroduce(@RequestParam(value = "q", required = false) String query,
+                                             @RequestParam(value = "tag", required = false) String tag,
+                                             @RequestParam(value = "status", required = false) Status status,
+                                             @RequestParam(value = "offset", defaultValue = "0") int offset,
+                                             @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(introduceService.searchIntroduce(query, tag, status, offset, limit));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Đẩy delta (tạo, sửa, đổi status, xóa) thay vì poll /all. Kết nối lại với Last-Event-ID (hoặc ?after=)
+     * để nhận bù; event RESET nghĩa là client cần tải lại /all.
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+                                   @RequestParam(value = "after", required = false) String after) {
+        return introduceSseStream.open(lastEventId != null ? lastEventId : after);
+    }
+
     @GetMapping("/get-by-title/{id}")
     public ResponseEntity<?> getIntroduceByTitle(@PathVariable String id) {
         try {
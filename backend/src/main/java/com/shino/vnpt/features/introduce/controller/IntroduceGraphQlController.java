@@ -1,20 +1,96 @@
 package com.shino.vnpt.features.introduce.controller;
 
+import com.shino.vnpt.features.image.dto.ImageMetadataResponse;
+import com.shino.vnpt.features.image.services.ImageService;
 import com.shino.vnpt.features.introduce.document.IntroduceDocument;
+import com.shino.vnpt.features.introduce.dto.response.IntroduceChangeEvent;
+import com.shino.vnpt.features.introduce.dto.response.IntroduceSearchResponse;
+import com.shino.vnpt.features.introduce.enums.Status;
+import com.shino.vnpt.features.introduce.event.IntroduceEventPublisher;
 import com.shino.vnpt.features.introduce.service.IntroduceService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.graphql.data.method.annotation.SubscriptionMapping;
 import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 @Controller
 @RequiredArgsConstructor
 public class IntroduceGraphQlController {
     private final IntroduceService introduceService;
+    private final ImageService imageService;
+    private final IntroduceEventPublisher introduceEventPublisher;
 
     @QueryMapping
     public List<IntroduceDocument> introduces() {
         return introduceService.getAllIntroduce();
     }
+
+    // Không tìm thấy trả null (introduce là trường nullable) thay vì lỗi
+    @QueryMapping
+    public IntroduceDocument introduce(@Argument String id) {
+        return introduceService.findById(id).orElse(null);
+    }
+
+    @QueryMapping
+    public IntroduceSearchResponse searchIntroduces(@Argument String query, @Argument String tag, @Argument Status status,
+                                                    @Argument Integer offset, @Argument Integer limit) {
+        return introduceService.searchIntroduce(query, tag, status,
+                offset != null ? offset : 0, limit != null ? limit : 20);
+    }
+
+    /**
+     * Cùng luồng delta với SSE /api/v1/introduce/events; after là eventId cuối đã nhận khi kết nối lại.
+     */
+    @SubscriptionMapping
+    public Flux<IntroduceChangeEvent> introduceChanges(@Argument String after) {
+        return Flux.create(sink -> {
+            Runnable unsubscribe = introduceEventPublisher.subscribe(after, new IntroduceEventPublisher.EventSink() {
+                @Override
+                public void send(IntroduceChangeEvent event) {
+                    sink.next(event);
+                }
+
+                @Override
+                public void heartbeat() {
+                }
+
+                @Override
+                public void close() {
+                    sink.complete();
+                }
+            });
+            sink.onDispose(unsubscribe::run);
+        }, FluxSink.OverflowStrategy.BUFFER);
+    }
+
+    /**
+     * DataLoader gom mọi IntroduceDocument.image trong một request thành một truy vấn metadata ảnh.
+     */
+    @BatchMapping(typeName = "IntroduceDocument")
+    public Map<IntroduceDocument, ImageMetadataResponse> image(List<IntroduceDocument> introduceDocuments) {
+        List<String> imageIds = introduceDocuments.stream()
+                .map(IntroduceDocument::getImageId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        Map<String, ImageMetadataResponse> imageMetadata = imageService.getImageMetadata(imageIds);
+
+        Map<IntroduceDocument, ImageMetadataResponse> result = new LinkedHashMap<>();
+        for (IntroduceDocument introduceDocument : introduceDocuments) {
+            ImageMetadataResponse image = imageMetadata.get(introduceDocument.getImageId());
+            if (image != null) {
+                result.put(introduceDocument, image);
+            }
+        }
+        return result;
+    }
 }
@@ -7,6 +7,8 @@ import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -15,7 +17,11 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @NoArgsConstructor
 @Document(collection = "introduce")
+@CompoundIndex(name = "status_priority_title", def = "{'status': 1, 'priority': 1, 'title': 1, '_id': 1}")
+@CompoundIndex(name = "priority_title", def = "{'priority': 1, 'title': 1, '_id': 1}")
 public class IntroduceDocument {
+    public static final String PRODUCTION_TAG = "Production";
+
     @Id
     private String id;
     private String title;
@@ -28,4 +34,13 @@ public class IntroduceDocument {
     @LastModifiedDate
     private LocalDateTime modifiedAt;
     private Status status = Status.ACTIVE;
+    // Chuẩn hóa từ tag để MongoDB sắp xếp: 0 = Production (lên đầu), 1 = còn lại
+    private Integer priority;
+    // Tăng mỗi lần sửa; client gửi lại khi cập nhật để không ghi đè thay đổi của người khác
+    @Version
+    private Long version;
+
+    public static int priorityOf(String tag) {
+        return PRODUCTION_TAG.equalsIgnoreCase(tag) ? 0 : 1;
+    }
 }
@@ -0,0 +1,26 @@
+package com.shino.vnpt.features.introduce.dto.request;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.shino.vnpt.features.introduce.enums.Status;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Một dòng NDJSON của import/export. Ảnh có thể tham chiếu (imageId) hoặc nhúng (imageContentType + imageBase64).
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class IntroduceBulkRow {
+    private String id;
+    private String title;
+    private String description;
+    private String tag;
+    private String url;
+    private Status status;
+    private String imageId;
+    private String imageContentType;
+    private String imageBase64;
+}
@@ -14,4 +14,6 @@ public class IntroduceUpdateRequest {
     private String tag;
     private String url;
     private Status status;
+    // version client đã đọc; null thì không kiểm tra xung đột
+    private Long version;
 }
@@ -0,0 +1,28 @@
+package com.shino.vnpt.features.introduce.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkImportResponse {
+    private int total;
+    private int inserted;
+    // Dòng có id trùng introduce đã tồn tại (upsert theo _id)
+    private int updated;
+    private List<BulkRowError> errors = new ArrayList<>();
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class BulkRowError {
+        // Số dòng trong file NDJSON, bắt đầu từ 1
+        private int line;
+        private String message;
+    }
+}
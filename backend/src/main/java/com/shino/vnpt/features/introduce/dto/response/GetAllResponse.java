@@ -1,10 +1,11 @@
 package com.shino.vnpt.features.introduce.dto.response;
 
-import com.shino.vnpt.features.image.document.ImageDocument;
+import com.shino.vnpt.features.image.dto.ImageMetadataResponse;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Data
@@ -14,7 +15,11 @@ public class GetAllResponse {
     private String id;
     private String title;
     private String description;
+    private String tag;
     private String url;
     private String status;
-    private List<ImageDocument> imageInfo;
+    private String imageId;
+    private LocalDateTime createAt;
+    // Chỉ metadata (url, kích thước, hash), không có dữ liệu ảnh
+    private List<ImageMetadataResponse> imageInfo;
 }
@@ -0,0 +1,24 @@
+package com.shino.vnpt.features.introduce.dto.response;
+
+import com.shino.vnpt.features.introduce.document.IntroduceDocument;
+import com.shino.vnpt.features.introduce.enums.IntroduceChangeType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class IntroduceChangeEvent {
+    // "<epoch>-<sequence>": epoch đổi mỗi lần instance khởi động; client gửi lại qua Last-Event-ID / after khi kết nối lại
+    private String eventId;
+    // Tăng dần trên mỗi instance, bắt đầu lại từ 0 sau khi khởi động
+    private long sequence;
+    private IntroduceChangeType type;
+    private String id;
+    // null với DELETED và RESET
+    private IntroduceDocument introduce;
+    private Instant occurredAt;
+}
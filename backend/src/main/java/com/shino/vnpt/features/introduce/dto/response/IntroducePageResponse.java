@@ -0,0 +1,17 @@
+package com.shino.vnpt.features.introduce.dto.response;
+
+import com.shino.vnpt.features.introduce.document.IntroduceDocument;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class IntroducePageResponse {
+    private List<IntroduceDocument> items;
+    // Truyền lại qua ?after= để lấy trang tiếp theo, null nếu đã hết
+    private String nextCursor;
+}
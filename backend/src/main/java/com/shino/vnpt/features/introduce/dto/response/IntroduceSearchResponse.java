@@ -0,0 +1,28 @@
+package com.shino.vnpt.features.introduce.dto.response;
+
+import com.shino.vnpt.features.introduce.document.IntroduceDocument;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class IntroduceSearchResponse {
+    private List<IntroduceDocument> items;
+    // Tổng số kết quả sau khi lọc (trước khi phân trang)
+    private int total;
+    // Số kết quả theo tag/status, tính trên kết quả tìm kiếm trước khi lọc tag/status
+    private List<FacetCount> tags;
+    private List<FacetCount> statuses;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class FacetCount {
+        private String value;
+        private int count;
+    }
+}
@@ -0,0 +1,10 @@
+package com.shino.vnpt.features.introduce.enums;
+
+public enum IntroduceChangeType {
+    CREATED,
+    UPDATED,
+    STATUS_CHANGED,
+    DELETED,
+    // Không gửi được delta (client tụt quá xa buffer, bulk import...): client tải lại toàn bộ danh sách
+    RESET
+}
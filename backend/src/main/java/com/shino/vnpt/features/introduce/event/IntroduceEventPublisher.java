@@ -0,0 +1,249 @@
+package com.shino.vnpt.features.introduce.event;
+
+import com.shino.vnpt.features.introduce.document.IntroduceDocument;
+import com.shino.vnpt.features.introduce.dto.response.IntroduceChangeEvent;
+import com.shino.vnpt.features.introduce.enums.IntroduceChangeType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Phát delta của introduce tới các client đang kết nối (SSE, GraphQL subscription) thay cho việc poll /all.
+ * Mỗi client có hàng đợi riêng (giới hạn {@code introduce.events.max-pending}), được gửi bởi một pool nhỏ dùng chung
+ * nên kết nối rảnh không giữ thread nào; client đọc chậm bị ngắt thay vì giữ thread của pool.
+ * Giữ {@code introduce.events.replay-size} event gần nhất để client kết nối lại nhận bù phần bị lỡ.
+ */
+@Component
+public class IntroduceEventPublisher {
+    private static final IntroduceChangeEvent HEARTBEAT = new IntroduceChangeEvent();
+    // Mỗi lượt chỉ gửi tối đa chừng này event rồi nhường thread cho client khác
+    private static final int MAX_EVENTS_PER_RUN = 32;
+
+    private final Executor executor;
+    private final int replaySize;
+    private final int maxPending;
+    private final long sendTimeoutNanos;
+    // change-stream: phát từ change stream để client ở mọi instance đều thấy ghi của instance khác
+    private final boolean fromChangeStream;
+    private final Counter droppedCounter;
+
+    private final Deque<IntroduceChangeEvent> replay = new ArrayDeque<>();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    // Khác nhau giữa các lần khởi động và giữa các instance: sequence chỉ so sánh được khi cùng epoch
+    private final String epoch = UUID.randomUUID().toString().substring(0, 8);
+    private long sequence;
+
+    public IntroduceEventPublisher(@Qualifier("introduceEventExecutor") Executor executor,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${introduce.events.replay-size:256}") int replaySize,
+                                   @Value("${introduce.events.max-pending:256}") int maxPending,
+                                   @Value("${introduce.events.send-timeout:PT10S}") Duration sendTimeout,
+                                   @Value("${introduce.events.source:service}") String source) {
+        this.executor = executor;
+        this.replaySize = replaySize;
+        this.maxPending = maxPending;
+        this.sendTimeoutNanos = sendTimeout.toNanos();
+        this.fromChangeStream = "change-stream".equalsIgnoreCase(source);
+        this.droppedCounter = Counter.builder("introduce.events.dropped-subscribers").register(meterRegistry);
+        Gauge.builder("introduce.events.subscribers", subscribers, Set::size).register(meterRegistry);
+    }
+
+    // Ghi do instance này xử lý (IntroduceServiceImpl)
+    public void publishLocal(IntroduceChangeType type, String id, IntroduceDocument introduceDocument) {
+        if (!fromChangeStream) {
+            publish(type, id, introduceDocument);
+        }
+    }
+
+    // Ghi từ mọi instance, nhận qua change stream
+    public void publishReplicated(IntroduceChangeType type, String id, IntroduceDocument introduceDocument) {
+        if (fromChangeStream) {
+            publish(type, id, introduceDocument);
+        }
+    }
+
+    private synchronized void publish(IntroduceChangeType type, String id, IntroduceDocument introduceDocument) {
+        IntroduceChangeEvent event = newEvent(++sequence, type, id, introduceDocument);
+        replay.addLast(event);
+        if (replay.size() > replaySize) {
+            replay.removeFirst();
+        }
+        subscribers.forEach(subscriber -> subscriber.enqueue(event));
+    }
+
+    /**
+     * Đăng ký nhận event; lastEventId là eventId cuối client đã nhận (null nếu kết nối mới).
+     * Trả về hàm hủy đăng ký.
+     */
+    public synchronized Runnable subscribe(String lastEventId, EventSink sink) {
+        Subscriber subscriber = new Subscriber(sink);
+        Long lastSequence = lastEventId != null ? sequenceOf(lastEventId) : null;
+        if (lastEventId != null && (lastSequence == null || lastSequence != sequence)) {
+            // Khác epoch: id do lần khởi động trước hoặc instance khác cấp, sequence không so sánh được
+            boolean missed = lastSequence == null
+                    || lastSequence > sequence
+                    || replay.isEmpty()
+                    || replay.getFirst().getSequence() > lastSequence + 1;
+            if (missed) {
+                // Instance đã khởi động lại hoặc event cần bù đã rời buffer
+                subscriber.enqueue(newEvent(sequence, IntroduceChangeType.RESET, null, null));
+            } else {
+                replay.stream()
+                        .filter(event -> event.getSequence() > lastSequence)
+                        .forEach(subscriber::enqueue);
+            }
+        }
+        subscribers.add(subscriber);
+        return subscriber::cancel;
+    }
+
+    private IntroduceChangeEvent newEvent(long eventSequence, IntroduceChangeType type, String id, IntroduceDocument introduceDocument) {
+        return new IntroduceChangeEvent(epoch + "-" + eventSequence, eventSequence, type, id, introduceDocument, Instant.now());
+    }
+
+    // null nếu eventId không thuộc epoch hiện tại hoặc sai định dạng
+    private Long sequenceOf(String eventId) {
+        int separator = eventId.lastIndexOf('-');
+        if (separator < 0 || !eventId.substring(0, separator).equals(epoch)) {
+            return null;
+        }
+        try {
+            return Long.parseLong(eventId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // Proxy/load balancer hay cắt kết nối im lặng quá lâu; đồng thời ngắt client có lần gửi bị treo quá send-timeout
+    @Scheduled(fixedDelayString = "${introduce.events.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        long now = System.nanoTime();
+        subscribers.forEach(subscriber -> {
+            if (subscriber.isSendTimedOut(now)) {
+                subscriber.drop();
+            } else {
+                subscriber.enqueue(HEARTBEAT);
+            }
+        });
+    }
+
+    /**
+     * Cách gửi event tới một client. Được gọi tuần tự cho mỗi client, trên introduceEventExecutor.
+     */
+    public interface EventSink {
+        void send(IntroduceChangeEvent event) throws Exception;
+
+        void heartbeat() throws Exception;
+
+        // Client không đọc kịp: đóng kết nối, client kết nối lại và nhận bù từ buffer.
+        // Chạy trên thread riêng vì có thể phải chờ lần gửi đang bị treo
+        void close();
+    }
+
+    private final class Subscriber implements Runnable {
+        private final EventSink sink;
+        private final Queue<IntroduceChangeEvent> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pendingCount = new AtomicInteger();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean cancelled;
+        private final AtomicBoolean dropped = new AtomicBoolean();
+        // Thread và thời điểm bắt đầu của lần gửi đang chạy (null/0 khi rảnh)
+        private volatile Thread sendingThread;
+        private volatile long sendingSince;
+
+        Subscriber(EventSink sink) {
+            this.sink = sink;
+        }
+
+        void enqueue(IntroduceChangeEvent event) {
+            if (cancelled) {
+                return;
+            }
+            if (pendingCount.incrementAndGet() > maxPending) {
+                drop();
+                return;
+            }
+            pending.add(event);
+            schedule();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                executor.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            sendingThread = Thread.currentThread();
+            try {
+                IntroduceChangeEvent event;
+                int sent = 0;
+                while (!cancelled && sent++ < MAX_EVENTS_PER_RUN && (event = pending.poll()) != null) {
+                    pendingCount.decrementAndGet();
+                    sendingSince = System.nanoTime();
+                    if (event == HEARTBEAT) {
+                        sink.heartbeat();
+                    } else {
+                        sink.send(event);
+                    }
+                    sendingSince = 0;
+                }
+            } catch (Exception e) {
+                // Client đã ngắt kết nối
+                cancel();
+            } finally {
+                sendingSince = 0;
+                sendingThread = null;
+                scheduled.set(false);
+                if (!cancelled && !pending.isEmpty()) {
+                    schedule();
+                }
+            }
+        }
+
+        boolean isSendTimedOut(long now) {
+            long since = sendingSince;
+            return since != 0 && now - since > sendTimeoutNanos;
+        }
+
+        // Hàng đợi đầy hoặc gửi bị treo: hủy đăng ký, thử ngắt lần gửi đang chạy và đóng kết nối
+        void drop() {
+            if (!dropped.compareAndSet(false, true)) {
+                return;
+            }
+            droppedCounter.increment();
+            cancel();
+            Thread sending = sendingThread;
+            if (sending != null) {
+                sending.interrupt();
+            }
+            Thread closer = new Thread(sink::close, "introduce-events-close");
+            closer.setDaemon(true);
+            closer.start();
+        }
+
+        void cancel() {
+            cancelled = true;
+            subscribers.remove(this);
+            pending.clear();
+        }
+    }
+}
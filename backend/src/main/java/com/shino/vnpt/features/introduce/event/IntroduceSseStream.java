@@ -0,0 +1,61 @@
+package com.shino.vnpt.features.introduce.event;
+
+import com.shino.vnpt.features.introduce.dto.response.IntroduceChangeEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Kết nối SSE chạy bất đồng bộ trên servlet: thread của Tomcat được trả lại ngay, kết nối rảnh chỉ tốn socket.
+ */
+@Component
+@RequiredArgsConstructor
+public class IntroduceSseStream {
+    private final IntroduceEventPublisher introduceEventPublisher;
+
+    // Hết hạn thì EventSource tự kết nối lại kèm Last-Event-ID
+    @Value("${introduce.events.sse-timeout:PT30M}")
+    private Duration timeout;
+
+    @Value("${introduce.events.reconnect-delay:PT3S}")
+    private Duration reconnectDelay;
+
+    public SseEmitter open(String lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        try {
+            // Gửi ngay để header được flush và client biết đã kết nối
+            emitter.send(SseEmitter.event().reconnectTime(reconnectDelay.toMillis()).comment("connected"));
+        } catch (IOException e) {
+            throw new RuntimeException("Could not open introduce event stream: " + e.getMessage(), e);
+        }
+
+        Runnable unsubscribe = introduceEventPublisher.subscribe(lastEventId, new IntroduceEventPublisher.EventSink() {
+            @Override
+            public void send(IntroduceChangeEvent event) throws IOException {
+                emitter.send(SseEmitter.event()
+                        .id(event.getEventId())
+                        .name(event.getType().name())
+                        .data(event, MediaType.APPLICATION_JSON));
+            }
+
+            @Override
+            public void heartbeat() throws IOException {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+            }
+
+            @Override
+            public void close() {
+                emitter.complete();
+            }
+        });
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(error -> unsubscribe.run());
+        return emitter;
+    }
+}
@@ -0,0 +1,75 @@
+package com.shino.vnpt.features.introduce.job;
+
+import com.shino.vnpt.features.introduce.cache.IntroduceListCache;
+import com.shino.vnpt.features.introduce.document.IntroduceDocument;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+/**
+ * Gán priority cho các introduce được tạo trước khi có trường này và viết hoa title cũ,
+ * để thứ tự title (so sánh nhị phân trong MongoDB) không phụ thuộc chữ hoa/thường.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IntroducePriorityBackfill {
+    private final MongoTemplate mongoTemplate;
+    private final IntroduceListCache introduceListCache;
+
+    // Chạy nền để khởi động không phải chờ MongoDB
+    @Async("applicationTaskExecutor")
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillPriority() {
+        try {
+            backfill();
+        } catch (Exception e) {
+            log.warn("Could not backfill introduce priority: {}", e.getMessage());
+        }
+    }
+
+    private void backfill() {
+        Query production = new Query(Criteria.where("priority").exists(false)
+                .and("tag").regex("^" + IntroduceDocument.PRODUCTION_TAG + "$", "i"));
+        long updated = mongoTemplate.updateMulti(production, Update.update("priority", 0), IntroduceDocument.class).getModifiedCount();
+
+        Query others = new Query(Criteria.where("priority").exists(false));
+        updated += mongoTemplate.updateMulti(others, Update.update("priority", 1), IntroduceDocument.class).getModifiedCount();
+
+        updated += uppercaseTitles();
+
+        if (updated > 0) {
+            log.info("Backfilled priority/title for {} introduce documents", updated);
+            introduceListCache.invalidate();
+        }
+    }
+
+    // $toUpper của MongoDB chỉ xử lý ASCII nên viết hoa bằng Java (đúng với tiếng Việt), chỉ ghi bản ghi còn chữ thường
+    private long uppercaseTitles() {
+        Query query = new Query(Criteria.where("title").ne(null));
+        query.fields().include("_id").include("title");
+
+        long updated = 0;
+        try (CloseableIterator<IntroduceDocument> introduceDocuments = mongoTemplate.stream(query, IntroduceDocument.class)) {
+            while (introduceDocuments.hasNext()) {
+                IntroduceDocument introduceDocument = introduceDocuments.next();
+                String title = introduceDocument.getTitle();
+                String uppercased = title.toUpperCase();
+                if (uppercased.equals(title)) {
+                    continue;
+                }
+                Query unchanged = new Query(Criteria.where("_id").is(introduceDocument.getId()).and("title").is(title));
+                updated += mongoTemplate.updateFirst(unchanged, Update.update("title", uppercased), IntroduceDocument.class).getModifiedCount();
+            }
+        }
+        return updated;
+    }
+}
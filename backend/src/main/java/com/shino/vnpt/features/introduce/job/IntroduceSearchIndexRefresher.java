@@ -0,0 +1,42 @@
+package com.shino.vnpt.features.introduce.job;
+
+import com.shino.vnpt.features.introduce.repository.IntroduceRepository;
+import com.shino.vnpt.features.introduce.search.IntroduceSearchIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Dựng index tìm kiếm khi khởi động và định kỳ (bắt các thay đổi ghi thẳng vào MongoDB hoặc từ instance khác).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IntroduceSearchIndexRefresher {
+    private final IntroduceRepository introduceRepository;
+    private final IntroduceSearchIndex introduceSearchIndex;
+
+    // Chạy nền để khởi động không phải chờ MongoDB; search trả rỗng cho tới khi dựng xong
+    @Async("applicationTaskExecutor")
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        refresh();
+    }
+
+    @Scheduled(initialDelayString = "${introduce.search.refresh-interval-ms:900000}",
+            fixedDelayString = "${introduce.search.refresh-interval-ms:900000}")
+    public void refresh() {
+        try {
+            long start = System.nanoTime();
+            introduceSearchIndex.rebuild(introduceRepository::findAll);
+            log.debug("Rebuilt introduce search index with {} documents in {} ms",
+                    introduceSearchIndex.size(), (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            log.warn("Could not rebuild introduce search index: {}", e.getMessage());
+        }
+    }
+}
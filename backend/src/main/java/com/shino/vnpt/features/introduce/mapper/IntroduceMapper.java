@@ -2,9 +2,9 @@ package com.shino.vnpt.features.introduce.mapper;
 
 import com.shino.vnpt.features.introduce.document.IntroduceDocument;
 import com.shino.vnpt.features.introduce.dto.request.IntroduceCreateRequest;
-import com.shino.vnpt.features.introduce.dto.request.IntroduceUpdateRequest;
+import com.shino.vnpt.features.introduce.dto.response.GetAllResponse;
 import org.mapstruct.Mapper;
-import org.mapstruct.MappingTarget;
+import org.mapstruct.Mapping;
 import org.mapstruct.NullValuePropertyMappingStrategy;
 import org.mapstruct.factory.Mappers;
 
@@ -14,5 +14,6 @@ public interface IntroduceMapper {
 
     IntroduceDocument toIntroduceDocument(IntroduceCreateRequest introduceCreateRequest);
 
-    void updateIntroduceDocument(IntroduceUpdateRequest introduceUpdateRequest, @MappingTarget IntroduceDocument introduceDocument);
+    @Mapping(target = "imageInfo", ignore = true)
+    GetAllResponse toGetAllResponse(IntroduceDocument introduceDocument);
 }
@@ -0,0 +1,40 @@
+package com.shino.vnpt.features.introduce.repository;
+
+import com.shino.vnpt.features.introduce.document.IntroduceDocument;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Vị trí keyset (priority, title, id) theo đúng thứ tự sắp xếp của danh sách introduce.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class IntroduceCursor {
+    private int priority;
+    private String id;
+    private String title;
+
+    public static IntroduceCursor of(IntroduceDocument introduceDocument) {
+        return new IntroduceCursor(introduceDocument.getPriority(), introduceDocument.getId(), introduceDocument.getTitle());
+    }
+
+    public String encode() {
+        String raw = priority + "|" + id + "|" + (title == null ? "" : title);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static IntroduceCursor decode(String cursor) {
+        String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        // title đứng cuối nên có thể chứa ký tự '|'
+        String[] parts = raw.split("\\|", 3);
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        return new IntroduceCursor(Integer.parseInt(parts[0]), parts[1], parts[2]);
+    }
+}
@@ -4,8 +4,11 @@ import com.shino.vnpt.features.introduce.document.IntroduceDocument;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
-public interface IntroduceRepository extends MongoRepository<IntroduceDocument, String> {
+public interface IntroduceRepository extends MongoRepository<IntroduceDocument, String>, IntroduceRepositoryCustom {
     boolean existsByTitle(String title);
     IntroduceDocument findByTitle(String title);
+    List<IntroduceDocument> findAllByOrderByPriorityAscTitleAsc();
 }
@@ -0,0 +1,29 @@
+package com.shino.vnpt.features.introduce.repository;
+
+import com.shino.vnpt.features.introduce.document.IntroduceDocument;
+import com.shino.vnpt.features.introduce.enums.Status;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+
+public interface IntroduceRepositoryCustom {
+    /**
+     * Trang introduce theo thứ tự priority, title, _id (dùng index status_priority_title / priority_title).
+     * @param status null để lấy mọi trạng thái
+     * @param after  keyset của phần tử cuối trang trước, null để dùng offset
+     */
+    List<IntroduceDocument> findPage(Status status, IntroduceCursor after, int offset, int limit);
+
+    /**
+     * Áp update ($set các trường thay đổi) kèm tăng version và modifiedAt trong một findAndModify.
+     * @param expectedVersion null để bỏ qua kiểm tra version
+     * @return bản sau khi cập nhật, null nếu không có id hoặc version không khớp
+     */
+    IntroduceDocument updateFields(String id, Long expectedVersion, Update update);
+
+    /**
+     * Như {@link #updateFields(String, Long, Update)} nhưng trả về bản trước khi cập nhật,
+     * để bên gọi biết giá trị cũ bị ghi đè (vd. imageId cần trả lại tham chiếu).
+     */
+    IntroduceDocument updateFieldsReturningOld(String id, Long expectedVersion, Update update);
+}
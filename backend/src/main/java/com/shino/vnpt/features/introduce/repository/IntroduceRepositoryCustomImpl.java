@@ -0,0 +1,60 @@
+package com.shino.vnpt.features.introduce.repository;
+
+import com.shino.vnpt.features.introduce.document.IntroduceDocument;
+import com.shino.vnpt.features.introduce.enums.Status;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+public class IntroduceRepositoryCustomImpl implements IntroduceRepositoryCustom {
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public List<IntroduceDocument> findPage(Status status, IntroduceCursor after, int offset, int limit) {
+        Query query = new Query().with(Sort.by(Sort.Direction.ASC, "priority", "title", "_id"));
+
+        if (status != null) {
+            query.addCriteria(Criteria.where("status").is(status));
+        }
+        if (after != null) {
+            query.addCriteria(new Criteria().orOperator(
+                    Criteria.where("priority").gt(after.getPriority()),
+                    Criteria.where("priority").is(after.getPriority()).and("title").gt(after.getTitle()),
+                    Criteria.where("priority").is(after.getPriority()).and("title").is(after.getTitle())
+                            .and("_id").gt(new ObjectId(after.getId()))));
+        } else if (offset > 0) {
+            query.skip(offset);
+        }
+
+        return mongoTemplate.find(query.limit(limit), IntroduceDocument.class);
+    }
+
+    @Override
+    public IntroduceDocument updateFields(String id, Long expectedVersion, Update update) {
+        return updateFields(id, expectedVersion, update, true);
+    }
+
+    @Override
+    public IntroduceDocument updateFieldsReturningOld(String id, Long expectedVersion, Update update) {
+        return updateFields(id, expectedVersion, update, false);
+    }
+
+    private IntroduceDocument updateFields(String id, Long expectedVersion, Update update, boolean returnNew) {
+        Criteria criteria = Criteria.where("_id").is(id);
+        if (expectedVersion != null) {
+            criteria.and("version").is(expectedVersion);
+        }
+        // findAndModify không qua auditing nên tự cập nhật version/modifiedAt ($inc tạo version cho bản ghi cũ chưa có)
+        update.inc("version", 1).currentDate("modifiedAt");
+        return mongoTemplate.findAndModify(new Query(criteria), update,
+                FindAndModifyOptions.options().returnNew(returnNew), IntroduceDocument.class);
+    }
+}
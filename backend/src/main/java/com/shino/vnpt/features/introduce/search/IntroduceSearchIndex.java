@@ -0,0 +1,374 @@
+package com.shino.vnpt.features.introduce.search;
+
+import com.shino.vnpt.features.introduce.document.IntroduceDocument;
+import com.shino.vnpt.features.introduce.dto.response.IntroduceSearchResponse;
+import com.shino.vnpt.features.introduce.dto.response.IntroduceSearchResponse.FacetCount;
+import com.shino.vnpt.features.introduce.enums.Status;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Inverted index trong bộ nhớ trên title, tag, description. Hỗ trợ tiền tố ("prod" -> "production")
+ * và gõ sai một ký tự ("prodcution"), kèm đếm facet theo tag/status.
+ * Được cập nhật từng bản ghi mỗi lần ghi qua IntroduceServiceImpl; dựng lại toàn bộ khi khởi động và định kỳ.
+ */
+@Component
+public class IntroduceSearchIndex {
+    private static final int TITLE = 1;
+    private static final int TAG = 2;
+    private static final int DESCRIPTION = 4;
+
+    private static final double EXACT_BOOST = 3;
+    private static final double PREFIX_BOOST = 2;
+    private static final double FUZZY_BOOST = 1;
+
+    private static final int MIN_PREFIX_LENGTH = 2;
+    // Từ ngắn hơn không so gần đúng (sai 1 ký tự trong từ 3 chữ là từ khác)
+    private static final int MIN_FUZZY_LENGTH = 4;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private static final Comparator<Hit> HIT_ORDER = Comparator
+            .comparingDouble(Hit::score).reversed()
+            .thenComparingInt(hit -> IntroduceDocument.priorityOf(hit.document().getTag()))
+            .thenComparing(hit -> hit.document().getTitle(), Comparator.nullsLast(String::compareTo));
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Index current = new Index();
+    // Ghi xảy ra trong lúc dựng lại (id -> bản mới, null nếu xóa), áp lại lên index mới trước khi thay
+    private Map<String, IntroduceDocument> pendingWrites;
+
+    public void index(IntroduceDocument introduceDocument) {
+        lock.writeLock().lock();
+        try {
+            if (pendingWrites != null) {
+                pendingWrites.put(introduceDocument.getId(), introduceDocument);
+            }
+            current.remove(introduceDocument.getId());
+            current.add(introduceDocument);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String id) {
+        lock.writeLock().lock();
+        try {
+            if (pendingWrites != null) {
+                pendingWrites.put(id, null);
+            }
+            current.remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Dựng index mới ngoài lock (tìm kiếm vẫn chạy trên index cũ) rồi thay vào.
+     */
+    public synchronized void rebuild(Supplier<? extends Collection<IntroduceDocument>> loader) {
+        lock.writeLock().lock();
+        try {
+            pendingWrites = new LinkedHashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            Index rebuilt = new Index();
+            for (IntroduceDocument introduceDocument : loader.get()) {
+                rebuilt.add(introduceDocument);
+            }
+
+            lock.writeLock().lock();
+            try {
+                pendingWrites.forEach((id, introduceDocument) -> {
+                    rebuilt.remove(id);
+                    if (introduceDocument != null) {
+                        rebuilt.add(introduceDocument);
+                    }
+                });
+                current = rebuilt;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            lock.writeLock().lock();
+            try {
+                pendingWrites = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return current.documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Mọi từ trong query đều phải khớp (khớp đúng, tiền tố hoặc sai một ký tự). Query rỗng trả về tất cả.
+     */
+    public IntroduceSearchResponse search(String query, String tag, Status status, int offset, int limit) {
+        List<String> tokens = SearchTokenizer.tokenize(query);
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+
+        lock.readLock().lock();
+        try {
+            Map<String, Double> scores = current.match(tokens);
+
+            Map<String, Integer> tagCounts = new HashMap<>();
+            Map<String, Integer> statusCounts = new HashMap<>();
+            List<Hit> hits = new ArrayList<>();
+            scores.forEach((id, score) -> {
+                IntroduceDocument introduceDocument = current.documents.get(id);
+                if (introduceDocument.getTag() != null) {
+                    tagCounts.merge(introduceDocument.getTag(), 1, Integer::sum);
+                }
+                if (introduceDocument.getStatus() != null) {
+                    statusCounts.merge(introduceDocument.getStatus().name(), 1, Integer::sum);
+                }
+                if ((tag == null || tag.equalsIgnoreCase(introduceDocument.getTag()))
+                        && (status == null || status == introduceDocument.getStatus())) {
+                    hits.add(new Hit(introduceDocument, score));
+                }
+            });
+
+            hits.sort(HIT_ORDER);
+            List<IntroduceDocument> items = hits.stream()
+                    .skip(Math.max(offset, 0))
+                    .limit(pageSize)
+                    .map(Hit::document)
+                    .toList();
+            return new IntroduceSearchResponse(items, hits.size(), toFacets(tagCounts), toFacets(statusCounts));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static List<FacetCount> toFacets(Map<String, Integer> counts) {
+        return counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .map(entry -> new FacetCount(entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    // Khoảng cách Damerau-Levenshtein (đảo 2 ký tự liền kề tính là 1) không quá 1
+    static boolean isOneEditApart(String a, String b) {
+        int lengthDifference = a.length() - b.length();
+        if (Math.abs(lengthDifference) > 1) {
+            return false;
+        }
+        if (lengthDifference != 0) {
+            String longer = lengthDifference > 0 ? a : b;
+            String shorter = lengthDifference > 0 ? b : a;
+            int i = 0;
+            while (i < shorter.length() && shorter.charAt(i) == longer.charAt(i)) {
+                i++;
+            }
+            return shorter.regionMatches(i, longer, i + 1, shorter.length() - i);
+        }
+
+        int first = -1;
+        int mismatches = 0;
+        for (int i = 0; i < a.length(); i++) {
+            if (a.charAt(i) != b.charAt(i)) {
+                if (++mismatches == 1) {
+                    first = i;
+                } else if (mismatches > 2) {
+                    return false;
+                }
+            }
+        }
+        if (mismatches <= 1) {
+            return true;
+        }
+        return mismatches == 2 && first + 1 < a.length()
+                && a.charAt(first) == b.charAt(first + 1) && a.charAt(first + 1) == b.charAt(first);
+    }
+
+    private record Hit(IntroduceDocument document, double score) {
+    }
+
+    private static class Index {
+        private final Map<String, IntroduceDocument> documents = new HashMap<>();
+        private final Map<String, Set<String>> documentTerms = new HashMap<>();
+        // term -> (id -> các field chứa term, dạng bit TITLE | TAG | DESCRIPTION)
+        private final Map<String, Map<String, Integer>> postings = new HashMap<>();
+        private final NavigableSet<String> vocabulary = new TreeSet<>();
+        // Biến thể bỏ 1 ký tự -> các term sinh ra nó, để tìm term sai một ký tự mà không duyệt cả vocabulary
+        private final Map<String, Set<String>> deletions = new HashMap<>();
+
+        void add(IntroduceDocument introduceDocument) {
+            Map<String, Integer> fields = new HashMap<>();
+            addTerms(fields, introduceDocument.getTitle(), TITLE);
+            addTerms(fields, introduceDocument.getTag(), TAG);
+            addTerms(fields, introduceDocument.getDescription(), DESCRIPTION);
+
+            String id = introduceDocument.getId();
+            documents.put(id, introduceDocument);
+            documentTerms.put(id, fields.keySet());
+            fields.forEach((term, mask) -> postings.computeIfAbsent(term, key -> {
+                vocabulary.add(key);
+                addDeletions(key);
+                return new HashMap<>();
+            }).put(id, mask));
+        }
+
+        void remove(String id) {
+            if (documents.remove(id) == null) {
+                return;
+            }
+            for (String term : documentTerms.remove(id)) {
+                Map<String, Integer> posting = postings.get(term);
+                posting.remove(id);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                    vocabulary.remove(term);
+                    removeDeletions(term);
+                }
+            }
+        }
+
+        Map<String, Double> match(List<String> tokens) {
+            if (tokens.isEmpty()) {
+                Map<String, Double> all = new HashMap<>();
+                documents.keySet().forEach(id -> all.put(id, 0.0));
+                return all;
+            }
+
+            Map<String, Double> result = null;
+            for (String token : tokens) {
+                Map<String, Double> tokenScores = matchToken(token);
+                if (result == null) {
+                    result = tokenScores;
+                } else {
+                    result.keySet().retainAll(tokenScores.keySet());
+                    result.replaceAll((id, score) -> score + tokenScores.get(id));
+                }
+                if (result.isEmpty()) {
+                    break;
+                }
+            }
+            return result;
+        }
+
+        private Map<String, Double> matchToken(String token) {
+            Map<String, Double> scores = new HashMap<>();
+            collect(scores, postings.get(token), EXACT_BOOST);
+
+            if (token.length() >= MIN_PREFIX_LENGTH) {
+                for (String term : prefixTerms(token)) {
+                    collect(scores, postings.get(term), PREFIX_BOOST);
+                }
+            }
+
+            if (token.length() >= MIN_FUZZY_LENGTH) {
+                for (String term : fuzzyTerms(token)) {
+                    collect(scores, postings.get(term), FUZZY_BOOST);
+                }
+            }
+            return scores;
+        }
+
+        // Tiền tố ngắn có thể khớp rất nhiều term: giữ MAX_PREFIX_EXPANSIONS term gần token nhất
+        // (ngắn nhất, rồi có nhiều introduce nhất) thay vì cắt theo thứ tự chữ cái
+        private List<String> prefixTerms(String token) {
+            Comparator<String> closest = Comparator.comparingInt(String::length)
+                    .thenComparing(term -> postings.get(term).size(), Comparator.reverseOrder())
+                    .thenComparing(Comparator.naturalOrder());
+            PriorityQueue<String> best = new PriorityQueue<>(closest.reversed());
+            for (String term : vocabulary.subSet(token, false, token + Character.MAX_VALUE, false)) {
+                best.add(term);
+                if (best.size() > MAX_PREFIX_EXPANSIONS) {
+                    best.poll();
+                }
+            }
+            return new ArrayList<>(best);
+        }
+
+        // Term cách token đúng một phép thêm/bớt/thay/đảo ký tự
+        private Set<String> fuzzyTerms(String token) {
+            Set<String> candidates = new HashSet<>(deletions.getOrDefault(token, Set.of()));
+            for (String variant : deletionsOf(token)) {
+                if (vocabulary.contains(variant)) {
+                    candidates.add(variant);
+                }
+                candidates.addAll(deletions.getOrDefault(variant, Set.of()));
+            }
+            candidates.removeIf(term -> term.equals(token) || !isOneEditApart(token, term));
+            return candidates;
+        }
+
+        private static void collect(Map<String, Double> scores, Map<String, Integer> posting, double boost) {
+            if (posting == null) {
+                return;
+            }
+            posting.forEach((id, mask) -> scores.merge(id, boost * fieldWeight(mask), Math::max));
+        }
+
+        private static double fieldWeight(int mask) {
+            if ((mask & TITLE) != 0) {
+                return 3;
+            }
+            return (mask & TAG) != 0 ? 2 : 1;
+        }
+
+        private static void addTerms(Map<String, Integer> fields, String text, int field) {
+            for (String term : SearchTokenizer.tokenize(text)) {
+                fields.merge(term, field, (existing, added) -> existing | added);
+            }
+        }
+
+        private void addDeletions(String term) {
+            if (term.length() < MIN_FUZZY_LENGTH) {
+                return;
+            }
+            for (String variant : deletionsOf(term)) {
+                deletions.computeIfAbsent(variant, key -> new HashSet<>()).add(term);
+            }
+        }
+
+        private void removeDeletions(String term) {
+            if (term.length() < MIN_FUZZY_LENGTH) {
+                return;
+            }
+            for (String variant : deletionsOf(term)) {
+                Set<String> terms = deletions.get(variant);
+                if (terms != null) {
+                    terms.remove(term);
+                    if (terms.isEmpty()) {
+                        deletions.remove(variant);
+                    }
+                }
+            }
+        }
+
+        private static Set<String> deletionsOf(String term) {
+            Set<String> variants = new HashSet<>();
+            for (int i = 0; i < term.length(); i++) {
+                variants.add(term.substring(0, i) + term.substring(i + 1));
+            }
+            return variants;
+        }
+    }
+}
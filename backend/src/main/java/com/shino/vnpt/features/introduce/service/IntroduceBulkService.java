@@ -0,0 +1,11 @@
+package com.shino.vnpt.features.introduce.service;
+
+import com.shino.vnpt.features.introduce.dto.response.BulkImportResponse;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+
+public interface IntroduceBulkService {
+    BulkImportResponse importNdjson(InputStream inputStream);
+    void exportNdjson(OutputStream outputStream, boolean includeImages);
+}
@@ -0,0 +1,277 @@
+package com.shino.vnpt.features.introduce.service;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.shino.vnpt.features.image.document.ImageDocument;
+import com.shino.vnpt.features.image.dto.ImageContent;
+import com.shino.vnpt.features.image.services.ImageService;
+import com.shino.vnpt.features.introduce.cache.IntroduceListCache;
+import com.shino.vnpt.features.introduce.document.IntroduceDocument;
+import com.shino.vnpt.features.introduce.dto.request.IntroduceBulkRow;
+import com.shino.vnpt.features.introduce.dto.response.BulkImportResponse;
+import com.shino.vnpt.features.introduce.dto.response.BulkImportResponse.BulkRowError;
+import com.shino.vnpt.features.introduce.enums.IntroduceChangeType;
+import com.shino.vnpt.features.introduce.enums.Status;
+import com.shino.vnpt.features.introduce.event.IntroduceEventPublisher;
+import com.shino.vnpt.features.introduce.search.IntroduceSearchIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StreamUtils;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class IntroduceBulkServiceImpl implements IntroduceBulkService {
+    private static final byte[] NEW_LINE = {'\n'};
+
+    private final MongoTemplate mongoTemplate;
+    private final ImageService imageService;
+    private final IntroduceListCache introduceListCache;
+    private final IntroduceSearchIndex introduceSearchIndex;
+    private final IntroduceEventPublisher introduceEventPublisher;
+    private final ObjectMapper objectMapper;
+
+    @Value("${introduce.bulk.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * Đọc từng dòng NDJSON (không nạp cả file), gom theo batch rồi ghi bằng BulkOperations.
+     * Dòng có id (vd. file từ /export) được upsert theo _id, dòng không có id được insert.
+     * Dòng lỗi được ghi lại kèm số dòng, các dòng khác vẫn được ghi.
+     */
+    @Override
+    public BulkImportResponse importNdjson(InputStream inputStream) {
+        BulkImportResponse response = new BulkImportResponse();
+        ObjectReader reader = objectMapper.readerFor(IntroduceBulkRow.class);
+
+        try (MappingIterator<IntroduceBulkRow> rows = reader.readValues(inputStream)) {
+            List<IntroduceDocument> batch = new ArrayList<>(batchSize);
+            List<Integer> batchLines = new ArrayList<>(batchSize);
+            int line = 0;
+
+            while (true) {
+                IntroduceBulkRow row;
+                try {
+                    if (!rows.hasNextValue()) {
+                        break;
+                    }
+                    line++;
+                    row = rows.nextValue();
+                } catch (Exception e) {
+                    // JSON hỏng: không thể đọc tiếp một cách tin cậy
+                    response.getErrors().add(new BulkRowError(line, "Invalid JSON: " + e.getMessage()));
+                    break;
+                }
+
+                try {
+                    batch.add(toDocument(row));
+                    batchLines.add(line);
+                } catch (Exception e) {
+                    response.getErrors().add(new BulkRowError(line, e.getMessage()));
+                }
+
+                if (batch.size() >= batchSize) {
+                    flush(batch, batchLines, response);
+                }
+            }
+            flush(batch, batchLines, response);
+            response.setTotal(line);
+        } catch (Exception e) {
+            throw new RuntimeException("Error in importNdjson: " + e.getMessage(), e);
+        } finally {
+            if (response.getInserted() > 0 || response.getUpdated() > 0) {
+                introduceListCache.invalidate();
+                // Import có thể hàng nghìn dòng: dựng lại index một lần thay vì cập nhật từng bản ghi
+                introduceSearchIndex.rebuild(() -> mongoTemplate.findAll(IntroduceDocument.class));
+                // Không đẩy từng dòng: client tải lại danh sách một lần
+                introduceEventPublisher.publishLocal(IntroduceChangeType.RESET, null, null);
+            }
+        }
+        return response;
+    }
+
+    /**
+     * Ghi từng introduce ra NDJSON theo cursor MongoDB (không findAll()).
+     */
+    @Override
+    public void exportNdjson(OutputStream outputStream, boolean includeImages) {
+        ObjectWriter writer = objectMapper.writerFor(IntroduceBulkRow.class);
+        Query query = new Query().with(Sort.by(Sort.Direction.ASC, "_id"));
+
+        try (CloseableIterator<IntroduceDocument> introduceDocuments = mongoTemplate.stream(query, IntroduceDocument.class)) {
+            while (introduceDocuments.hasNext()) {
+                IntroduceDocument introduceDocument = introduceDocuments.next();
+                IntroduceBulkRow row = toRow(introduceDocument);
+                if (includeImages && introduceDocument.getImageId() != null) {
+                    embedImage(row);
+                }
+                outputStream.write(writer.writeValueAsBytes(row));
+                outputStream.write(NEW_LINE);
+            }
+            outputStream.flush();
+        } catch (Exception e) {
+            throw new RuntimeException("Error in exportNdjson: " + e.getMessage(), e);
+        }
+    }
+
+    private IntroduceDocument toDocument(IntroduceBulkRow row) {
+        if (row.getTitle() == null || row.getTitle().isBlank()) {
+            throw new RuntimeException("Title is required");
+        }
+
+        IntroduceDocument introduceDocument = new IntroduceDocument();
+        introduceDocument.setId(row.getId());
+        introduceDocument.setTitle(row.getTitle().toUpperCase());
+        introduceDocument.setDescription(row.getDescription());
+        introduceDocument.setTag(row.getTag());
+        introduceDocument.setUrl(row.getUrl());
+        introduceDocument.setStatus(row.getStatus() != null ? row.getStatus() : Status.ACTIVE);
+        introduceDocument.setPriority(IntroduceDocument.priorityOf(row.getTag()));
+
+        if (row.getImageBase64() != null) {
+            byte[] bytes = Base64.getDecoder().decode(row.getImageBase64());
+            ImageDocument imageDocument = imageService.saveImage(new ByteArrayResource(bytes), row.getImageContentType());
+            introduceDocument.setImageId(imageDocument.getId());
+        } else if (row.getImageId() != null) {
+            // Dùng ảnh có sẵn: ảnh phải tồn tại và được tăng tham chiếu như khi upload
+            if (imageService.addReference(row.getImageId()) == null) {
+                throw new RuntimeException("Image not found with id: " + row.getImageId());
+            }
+            introduceDocument.setImageId(row.getImageId());
+        }
+        return introduceDocument;
+    }
+
+    // Mỗi introduce trong batch giữ một tham chiếu ảnh do chính lần import này tạo (upload hoặc addReference):
+    // dòng ghi lỗi thì trả lại, dòng upsert thành công thì trả lại ảnh cũ bị thay
+    private void flush(List<IntroduceDocument> batch, List<Integer> batchLines, BulkImportResponse response) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        Map<String, String> previousImageIds = findImageIds(batch);
+        Set<Integer> failed = new HashSet<>();
+        try {
+            BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, IntroduceDocument.class);
+            for (IntroduceDocument introduceDocument : batch) {
+                if (introduceDocument.getId() != null) {
+                    bulkOperations.upsert(new Query(Criteria.where("_id").is(introduceDocument.getId())), toUpdate(introduceDocument));
+                } else {
+                    bulkOperations.insert(introduceDocument);
+                }
+            }
+            count(bulkOperations.execute(), response);
+        } catch (BulkOperationException e) {
+            count(e.getResult(), response);
+            for (BulkWriteError error : e.getErrors()) {
+                failed.add(error.getIndex());
+                response.getErrors().add(new BulkRowError(batchLines.get(error.getIndex()), error.getMessage()));
+            }
+        } catch (Exception e) {
+            for (int i = 0; i < batch.size(); i++) {
+                failed.add(i);
+                response.getErrors().add(new BulkRowError(batchLines.get(i), e.getMessage()));
+            }
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            IntroduceDocument introduceDocument = batch.get(i);
+            String released = failed.contains(i)
+                    ? introduceDocument.getImageId()
+                    : previousImageIds.get(introduceDocument.getId());
+            if (released != null) {
+                releaseImage(released);
+            }
+        }
+        batch.clear();
+        batchLines.clear();
+    }
+
+    private Map<String, String> findImageIds(List<IntroduceDocument> batch) {
+        List<String> ids = batch.stream()
+                .map(IntroduceDocument::getId)
+                .filter(Objects::nonNull)
+                .toList();
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+
+        Query query = new Query(Criteria.where("_id").in(ids).and("imageId").ne(null));
+        query.fields().include("_id").include("imageId");
+        return mongoTemplate.find(query, IntroduceDocument.class).stream()
+                .collect(Collectors.toMap(IntroduceDocument::getId, IntroduceDocument::getImageId));
+    }
+
+    // Upsert không qua auditing/@Version nên tự đặt createAt, modifiedAt và version
+    private static Update toUpdate(IntroduceDocument introduceDocument) {
+        return new Update()
+                .set("title", introduceDocument.getTitle())
+                .set("description", introduceDocument.getDescription())
+                .set("tag", introduceDocument.getTag())
+                .set("url", introduceDocument.getUrl())
+                .set("status", introduceDocument.getStatus())
+                .set("priority", introduceDocument.getPriority())
+                .set("imageId", introduceDocument.getImageId())
+                .setOnInsert("createAt", LocalDateTime.now())
+                .currentDate("modifiedAt")
+                .inc("version", 1);
+    }
+
+    private static void count(BulkWriteResult result, BulkImportResponse response) {
+        response.setInserted(response.getInserted() + result.getInsertedCount() + result.getUpserts().size());
+        response.setUpdated(response.getUpdated() + result.getMatchedCount());
+    }
+
+    private void releaseImage(String imageId) {
+        try {
+            imageService.deleteImageById(imageId);
+        } catch (Exception e) {
+            // Ảnh mồ côi sẽ được OrphanImageCollector dọn
+        }
+    }
+
+    private IntroduceBulkRow toRow(IntroduceDocument introduceDocument) {
+        IntroduceBulkRow row = new IntroduceBulkRow();
+        row.setId(introduceDocument.getId());
+        row.setTitle(introduceDocument.getTitle());
+        row.setDescription(introduceDocument.getDescription());
+        row.setTag(introduceDocument.getTag());
+        row.setUrl(introduceDocument.getUrl());
+        row.setStatus(introduceDocument.getStatus());
+        row.setImageId(introduceDocument.getImageId());
+        return row;
+    }
+
+    private void embedImage(IntroduceBulkRow row) throws Exception {
+        ImageContent imageContent = imageService.getImageContent(row.getImageId(), null, null);
+        try (InputStream inputStream = imageContent.getResource().getInputStream()) {
+            row.setImageContentType(imageContent.getContentType());
+            row.setImageBase64(Base64.getEncoder().encodeToString(StreamUtils.copyToByteArray(inputStream)));
+        }
+    }
+}
@@ -1,17 +1,27 @@
 package com.shino.vnpt.features.introduce.service;
 
+import com.shino.vnpt.features.introduce.cache.IntroduceListSnapshot;
 import com.shino.vnpt.features.introduce.document.IntroduceDocument;
 import com.shino.vnpt.features.introduce.dto.request.IntroduceCreateRequest;
 import com.shino.vnpt.features.introduce.dto.request.IntroduceUpdateRequest;
+import com.shino.vnpt.features.introduce.dto.response.GetAllResponse;
+import com.shino.vnpt.features.introduce.dto.response.IntroducePageResponse;
+import com.shino.vnpt.features.introduce.dto.response.IntroduceSearchResponse;
 import com.shino.vnpt.features.introduce.enums.Status;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface IntroduceService {
     IntroduceDocument createIntroduce(IntroduceCreateRequest introduceCreateRequest, MultipartFile multipartFile);
     List<IntroduceDocument> getAllIntroduce();
+    IntroduceListSnapshot getAllIntroduceSnapshot();
+    List<GetAllResponse> getAllIntroduceWithImages();
+    IntroducePageResponse getIntroducePage(Status status, String after, int offset, int limit);
+    IntroduceSearchResponse searchIntroduce(String query, String tag, Status status, int offset, int limit);
     IntroduceDocument getById(String id);
+    Optional<IntroduceDocument> findById(String id);
     IntroduceDocument updateIntroduce(String id, IntroduceUpdateRequest introduceUpdateRequest, MultipartFile  multipartFile);
     IntroduceDocument updateStatus(String id, Status status);
     IntroduceDocument deleteIntroduce(String id);
@@ -1,54 +1,197 @@
 package com.shino.vnpt.features.introduce.service;
 
 import com.shino.vnpt.features.image.document.ImageDocument;
+import com.shino.vnpt.features.image.dto.ImageMetadataResponse;
 import com.shino.vnpt.features.image.services.ImageService;
+import com.shino.vnpt.features.introduce.cache.IntroduceListCache;
+import com.shino.vnpt.features.introduce.cache.IntroduceListSnapshot;
 import com.shino.vnpt.features.introduce.document.IntroduceDocument;
 import com.shino.vnpt.features.introduce.dto.request.IntroduceCreateRequest;
 import com.shino.vnpt.features.introduce.dto.request.IntroduceUpdateRequest;
+import com.shino.vnpt.features.introduce.dto.response.GetAllResponse;
+import com.shino.vnpt.features.introduce.dto.response.IntroducePageResponse;
+import com.shino.vnpt.features.introduce.dto.response.IntroduceSearchResponse;
+import com.shino.vnpt.features.introduce.enums.IntroduceChangeType;
 import com.shino.vnpt.features.introduce.enums.Status;
+import com.shino.vnpt.features.introduce.event.IntroduceEventPublisher;
 import com.shino.vnpt.features.introduce.mapper.IntroduceMapper;
+import com.shino.vnpt.features.introduce.repository.IntroduceCursor;
 import com.shino.vnpt.features.introduce.repository.IntroduceRepository;
+import com.shino.vnpt.features.introduce.search.IntroduceSearchIndex;
+import com.mongodb.MongoException;
+import io.micrometer.core.annotation.Timed;
+import io.opentelemetry.instrumentation.annotations.WithSpan;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
-import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 @Service
+@Timed(value = "introduce.service", histogram = true)
 @RequiredArgsConstructor
 public class IntroduceServiceImpl implements  IntroduceService {
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_TRANSACTION_ATTEMPTS = 3;
+
     private final IntroduceMapper introduceMapper;
     private final IntroduceRepository introduceRepository;
     private final ImageService imageService;
+    private final IntroduceListCache introduceListCache;
+    private final IntroduceSearchIndex introduceSearchIndex;
+    private final IntroduceEventPublisher introduceEventPublisher;
+    private final ObjectProvider<TransactionTemplate> transactionTemplateProvider;
 
+    /**
+     * Ảnh và introduce được ghi cùng nhau: trong một transaction MongoDB khi bật mongo.transactions.enabled,
+     * nếu không thì bù trừ (trả lại tham chiếu ảnh) khi lưu introduce lỗi.
+     */
     @Override
+    @WithSpan
     public IntroduceDocument createIntroduce(IntroduceCreateRequest introduceCreateRequest, MultipartFile multipartFile) {
         try {
+            TransactionTemplate transactionTemplate = transactionTemplateProvider.getIfAvailable();
+            IntroduceDocument introduceDocument = transactionTemplate != null
+                    ? insertInTransaction(transactionTemplate, introduceCreateRequest, multipartFile)
+                    : insertWithCompensation(introduceCreateRequest, multipartFile);
 
-            ImageDocument imageDocument = imageService.saveImage(multipartFile);
-            IntroduceDocument introduceDocument = introduceMapper.toIntroduceDocument(introduceCreateRequest);
-            introduceDocument.setTitle(introduceCreateRequest.getTitle().toUpperCase());
-            introduceDocument.setImageId(imageDocument.getId());
-            introduceRepository.save(introduceDocument);
+            // Chỉ cập nhật trạng thái trong bộ nhớ sau khi đã commit
+            introduceListCache.invalidate();
+            introduceSearchIndex.index(introduceDocument);
+            introduceEventPublisher.publishLocal(IntroduceChangeType.CREATED, introduceDocument.getId(), introduceDocument);
             return introduceDocument;
         } catch (Exception e) {
             throw new RuntimeException("Error in introduce create" + e.getMessage() + e);
         }
     }
 
+    // Upload trùng chạy song song (DuplicateKey) hoặc TransientTransactionError làm hủy cả transaction: chạy lại toàn bộ callback
+    private IntroduceDocument insertInTransaction(TransactionTemplate transactionTemplate, IntroduceCreateRequest introduceCreateRequest, MultipartFile multipartFile) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> insertIntroduce(introduceCreateRequest, imageService.saveImage(multipartFile)));
+            } catch (RuntimeException e) {
+                if (attempt >= MAX_TRANSACTION_ATTEMPTS || !isRetryable(e)) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private static boolean isRetryable(Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DuplicateKeyException) {
+                return true;
+            }
+            if (cause instanceof MongoException mongoException && mongoException.hasErrorLabel(MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Không có transaction: lỗi thì bỏ ngay tham chiếu ảnh vừa tạo; nếu cả bước này lỗi (hoặc tiến trình dừng giữa chừng)
+    // ảnh không được introduce nào dùng và sẽ được OrphanImageCollector dọn
+    private IntroduceDocument insertWithCompensation(IntroduceCreateRequest introduceCreateRequest, MultipartFile multipartFile) {
+        ImageDocument imageDocument = imageService.saveImage(multipartFile);
+        try {
+            return insertIntroduce(introduceCreateRequest, imageDocument);
+        } catch (RuntimeException e) {
+            releaseImage(imageDocument.getId());
+            throw e;
+        }
+    }
+
+    private IntroduceDocument insertIntroduce(IntroduceCreateRequest introduceCreateRequest, ImageDocument imageDocument) {
+        IntroduceDocument introduceDocument = introduceMapper.toIntroduceDocument(introduceCreateRequest);
+        introduceDocument.setTitle(introduceCreateRequest.getTitle().toUpperCase());
+        introduceDocument.setImageId(imageDocument.getId());
+        introduceDocument.setPriority(IntroduceDocument.priorityOf(introduceDocument.getTag()));
+        return introduceRepository.save(introduceDocument);
+    }
+
 
 
     @Override
+    @WithSpan
     public List<IntroduceDocument> getAllIntroduce() {
-        return introduceRepository.findAll()
-                .stream()
-                .sorted(Comparator
-                        .comparing((IntroduceDocument doc) -> !"Production".equalsIgnoreCase(doc.getTag())) // false < true
-                        .thenComparing(IntroduceDocument::getTitle, String.CASE_INSENSITIVE_ORDER))
-                .toList();
+        return introduceListCache.get(this::loadSortedIntroduces);
+    }
+
+    @Override
+    @WithSpan
+    public IntroduceListSnapshot getAllIntroduceSnapshot() {
+        return introduceListCache.getSnapshot(this::loadSortedIntroduces);
+    }
+
+    /**
+     * Danh sách introduce kèm metadata ảnh: 1 lần đọc cache + 1 truy vấn ảnh theo lô, thay vì 1 request ảnh cho mỗi thẻ.
+     */
+    @Override
+    @WithSpan
+    public List<GetAllResponse> getAllIntroduceWithImages() {
+        try {
+            List<IntroduceDocument> introduceDocuments = getAllIntroduce();
+            List<String> imageIds = introduceDocuments.stream()
+                    .map(IntroduceDocument::getImageId)
+                    .filter(Objects::nonNull)
+                    .distinct()
+                    .toList();
+            Map<String, ImageMetadataResponse> imageMetadata = imageService.getImageMetadata(imageIds);
+
+            return introduceDocuments.stream()
+                    .map(introduceDocument -> {
+                        GetAllResponse response = introduceMapper.toGetAllResponse(introduceDocument);
+                        ImageMetadataResponse image = imageMetadata.get(introduceDocument.getImageId());
+                        response.setImageInfo(image != null ? List.of(image) : List.of());
+                        return response;
+                    })
+                    .toList();
+        } catch (Exception e) {
+            throw new RuntimeException("Error in getAllIntroduceWithImages" + e.getMessage() + e);
+        }
+    }
+
+    // Production lên đầu rồi theo title: MongoDB sắp xếp theo priority, title (title luôn được lưu dạng chữ hoa)
+    private List<IntroduceDocument> loadSortedIntroduces() {
+        return introduceRepository.findAllByOrderByPriorityAscTitleAsc();
     }
 
+    @Override
+    @WithSpan
+    public IntroducePageResponse getIntroducePage(Status status, String after, int offset, int limit) {
+        try {
+            int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+            IntroduceCursor cursor = after != null && !after.isBlank() ? IntroduceCursor.decode(after) : null;
+
+            List<IntroduceDocument> introduceDocuments = introduceRepository.findPage(status, cursor, Math.max(offset, 0), pageSize + 1);
+            boolean hasNext = introduceDocuments.size() > pageSize;
+            List<IntroduceDocument> items = hasNext ? introduceDocuments.subList(0, pageSize) : introduceDocuments;
+            String nextCursor = hasNext ? IntroduceCursor.of(items.get(items.size() - 1)).encode() : null;
+            return new IntroducePageResponse(items, nextCursor);
+        } catch (Exception e) {
+            throw new RuntimeException("Error in getIntroducePage" + e.getMessage() + e);
+        }
+    }
 
     @Override
+    @WithSpan
+    public IntroduceSearchResponse searchIntroduce(String query, String tag, Status status, int offset, int limit) {
+        try {
+            return introduceSearchIndex.search(query, tag, status, offset, limit);
+        } catch (Exception e) {
+            throw new RuntimeException("Error in searchIntroduce" + e.getMessage() + e);
+        }
+    }
+
+    @Override
+    @WithSpan
     public IntroduceDocument getById(String id) {
         try {
             return introduceRepository.findById(id)
@@ -59,53 +202,131 @@ public class IntroduceServiceImpl implements  IntroduceService {
     }
 
     @Override
-    public IntroduceDocument updateIntroduce(String id, IntroduceUpdateRequest introduceUpdateRequest, MultipartFile multipartFile) {
+    @WithSpan
+    public Optional<IntroduceDocument> findById(String id) {
         try {
-            IntroduceDocument introduceDocument = getById(id);
-
-//            if (introduceUpdateRequest.getTitle() != null) {
-//                if (introduceRepository.existsByTitle(introduceUpdateRequest.getTitle().toUpperCase())) {
-//                    throw new RuntimeException("TITLE ALREADY EXISTS");
-//                } else {
-//                    introduceDocument.setTitle(introduceUpdateRequest.getTitle().toUpperCase());
-//                }
-//            }
-
-            introduceDocument.setTitle(introduceUpdateRequest.getTitle().toUpperCase());
+            return introduceRepository.findById(id);
+        } catch (Exception e) {
+            throw new RuntimeException("Error in findById" + e.getMessage() + e);
+        }
+    }
 
+    /**
+     * Chỉ $set các trường được gửi lên, trong một lần findAndModify (không đọc trước rồi ghi đè cả document).
+     * Có version trong request thì bản ghi đã bị người khác sửa sẽ bị từ chối thay vì bị ghi đè.
+     */
+    @Override
+    @WithSpan
+    public IntroduceDocument updateIntroduce(String id, IntroduceUpdateRequest introduceUpdateRequest, MultipartFile multipartFile) {
+        String newImageId = null;
+        try {
+            Update update = new Update();
+            if (introduceUpdateRequest.getTitle() != null) {
+                // Thứ tự sắp xếp dựa trên title chữ hoa
+                update.set("title", introduceUpdateRequest.getTitle().toUpperCase());
+            }
+            if (introduceUpdateRequest.getDescription() != null) {
+                update.set("description", introduceUpdateRequest.getDescription());
+            }
+            if (introduceUpdateRequest.getTag() != null) {
+                update.set("tag", introduceUpdateRequest.getTag())
+                        .set("priority", IntroduceDocument.priorityOf(introduceUpdateRequest.getTag()));
+            }
+            if (introduceUpdateRequest.getUrl() != null) {
+                update.set("url", introduceUpdateRequest.getUrl());
+            }
+            if (introduceUpdateRequest.getStatus() != null) {
+                update.set("status", introduceUpdateRequest.getStatus());
+            }
             if (multipartFile != null) {
-                ImageDocument imageDocument = imageService.saveImage(multipartFile);
-                introduceDocument.setImageId(imageDocument.getId());
+                newImageId = imageService.saveImage(multipartFile).getId();
+                update.set("imageId", newImageId);
             }
 
-            introduceMapper.updateIntroduceDocument(introduceUpdateRequest, introduceDocument);
-
+            IntroduceDocument introduceDocument;
+            if (newImageId == null) {
+                introduceDocument = introduceRepository.updateFields(id, introduceUpdateRequest.getVersion(), update);
+                if (introduceDocument == null) {
+                    throw notUpdated(id, introduceUpdateRequest.getVersion());
+                }
+            } else {
+                // Thay ảnh: lấy bản cũ để biết imageId bị ghi đè, cập nhật xong mới trả lại tham chiếu ảnh cũ
+                IntroduceDocument previous = introduceRepository.updateFieldsReturningOld(id, introduceUpdateRequest.getVersion(), update);
+                if (previous == null) {
+                    throw notUpdated(id, introduceUpdateRequest.getVersion());
+                }
+                // Ảnh mới đã gắn vào introduce, lỗi phía sau không được trả lại nó nữa
+                newImageId = null;
+                if (previous.getImageId() != null) {
+                    releaseImage(previous.getImageId());
+                }
+                introduceDocument = introduceRepository.findById(id).orElseThrow(() -> new RuntimeException("Introduce not found with ID: " + id));
+            }
 
-            introduceRepository.save(introduceDocument);
+            introduceListCache.invalidate();
+            introduceSearchIndex.index(introduceDocument);
+            introduceEventPublisher.publishLocal(IntroduceChangeType.UPDATED, introduceDocument.getId(), introduceDocument);
             return introduceDocument;
         } catch (Exception e) {
+            // Không cập nhật được thì bỏ tham chiếu tới ảnh vừa upload
+            if (newImageId != null) {
+                releaseImage(newImageId);
+            }
+            if (e instanceof OptimisticLockingFailureException) {
+                throw (OptimisticLockingFailureException) e;
+            }
             throw new RuntimeException("Error in updateIntroduce" + e.getMessage() + e);
         }
     }
 
+    // Một lệnh update nguyên tử, không đọc trước
     @Override
+    @WithSpan
     public IntroduceDocument updateStatus(String id, Status status) {
         try {
-            IntroduceDocument introduceDocument = getById(id);
-            introduceDocument.setStatus(status);
-            introduceRepository.save(introduceDocument);
+            IntroduceDocument introduceDocument = introduceRepository.updateFields(id, null, Update.update("status", status));
+            if (introduceDocument == null) {
+                throw new RuntimeException("Introduce not found with ID: " + id);
+            }
+
+            introduceListCache.invalidate();
+            introduceSearchIndex.index(introduceDocument);
+            introduceEventPublisher.publishLocal(IntroduceChangeType.STATUS_CHANGED, introduceDocument.getId(), introduceDocument);
             return introduceDocument;
         } catch (Exception e) {
             throw new RuntimeException("Error in updateStatus" + e.getMessage() + e);
         }
     }
 
+    private RuntimeException notUpdated(String id, Long expectedVersion) {
+        if (expectedVersion != null && introduceRepository.existsById(id)) {
+            return new OptimisticLockingFailureException("Introduce " + id + " has been modified since version "
+                    + expectedVersion + ", reload and retry");
+        }
+        return new RuntimeException("Introduce not found with ID: " + id);
+    }
+
+    private void releaseImage(String imageId) {
+        try {
+            imageService.deleteImageById(imageId);
+        } catch (Exception e) {
+            // Ảnh mồ côi sẽ được OrphanImageCollector dọn
+        }
+    }
+
     @Override
+    @WithSpan
     public IntroduceDocument deleteIntroduce(String id) {
         try {
             IntroduceDocument introduceDocument = getById(id);
 
             introduceRepository.delete(introduceDocument);
+            if (introduceDocument.getImageId() != null) {
+                releaseImage(introduceDocument.getImageId());
+            }
+            introduceListCache.invalidate();
+            introduceSearchIndex.remove(id);
+            introduceEventPublisher.publishLocal(IntroduceChangeType.DELETED, id, null);
             return introduceDocument;
         } catch (Exception e) {
             throw new RuntimeException("Error in deleteIntroduce" + e.getMessage() + e);
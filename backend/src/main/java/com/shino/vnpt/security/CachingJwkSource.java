@@ -0,0 +1,85 @@
+package com.shino.vnpt.security;
+
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Giữ JWKS của Keycloak trong bộ nhớ để xác thực JWT offline.
+ * Làm mới định kỳ ở background; chỉ gọi Keycloak trong request khi gặp kid lạ (xoay khóa),
+ * có giới hạn tần suất. Keycloak lỗi thì tiếp tục dùng bộ khóa cũ.
+ */
+@Slf4j
+@Component
+public class CachingJwkSource implements JWKSource<SecurityContext> {
+    private final AtomicReference<JWKSet> jwkSet = new AtomicReference<>(new JWKSet());
+    private final RestTemplate keycloakRestTemplate;
+    private final String jwkSetUri;
+    private final long minRefetchIntervalMillis;
+    private volatile long lastFetchAt;
+
+    public CachingJwkSource(RestTemplate keycloakRestTemplate,
+                            @Value("${spring.security.oauth2.resourceserver.jwt.jwk-set-uri:}") String jwkSetUri,
+                            @Value("${keycloak.auth-server-url}") String keycloakAuthServerUrl,
+                            @Value("${keycloak.realm}") String keycloakRealm,
+                            @Value("${security.jwks.min-refetch-interval-ms:30000}") long minRefetchIntervalMillis) {
+        this.keycloakRestTemplate = keycloakRestTemplate;
+        this.jwkSetUri = StringUtils.hasText(jwkSetUri)
+                ? jwkSetUri
+                : String.format("%s/realms/%s/protocol/openid-connect/certs", keycloakAuthServerUrl, keycloakRealm);
+        this.minRefetchIntervalMillis = minRefetchIntervalMillis;
+    }
+
+    @Override
+    public List<JWK> get(JWKSelector jwkSelector, SecurityContext context) throws KeySourceException {
+        List<JWK> matches = jwkSelector.select(jwkSet.get());
+        if (!matches.isEmpty()) {
+            return matches;
+        }
+
+        // kid chưa biết: có thể Keycloak vừa xoay khóa -> tải lại (giới hạn tần suất để token giả không làm ngập Keycloak)
+        if (refetchIfAllowed()) {
+            matches = jwkSelector.select(jwkSet.get());
+        }
+        return matches;
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${security.jwks.refresh-interval-ms:300000}")
+    public void refresh() {
+        try {
+            fetch();
+        } catch (Exception e) {
+            log.warn("Could not refresh JWKS from {}, keeping {} cached keys: {}", jwkSetUri, jwkSet.get().getKeys().size(), e.getMessage());
+        }
+    }
+
+    private synchronized boolean refetchIfAllowed() throws KeySourceException {
+        if (System.currentTimeMillis() - lastFetchAt < minRefetchIntervalMillis) {
+            return false;
+        }
+        try {
+            fetch();
+            return true;
+        } catch (Exception e) {
+            throw new KeySourceException("Could not fetch JWKS from " + jwkSetUri + ": " + e.getMessage(), e);
+        }
+    }
+
+    private void fetch() throws Exception {
+        lastFetchAt = System.currentTimeMillis();
+        String body = keycloakRestTemplate.getForObject(jwkSetUri, String.class);
+        jwkSet.set(JWKSet.parse(body));
+    }
+}
@@ -1,19 +1,40 @@
 package com.shino.vnpt.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.oauth2.jwt.Jwt;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
 public class KeycloakRoleConverter implements Converter<Jwt, Collection<GrantedAuthority>> {
+    // Quyền theo jti, hết hạn cùng token; giới hạn số phần tử để không phình bộ nhớ
+    private final Cache<String, Collection<GrantedAuthority>> authorityCache;
+
+    public KeycloakRoleConverter(long maxCachedTokens) {
+        this.authorityCache = Caffeine.newBuilder()
+                .maximumSize(maxCachedTokens)
+                .expireAfter(new TokenExpiry())
+                .build();
+    }
 
     @Override
     public Collection<GrantedAuthority> convert(Jwt jwt) {
+        if (jwt.getId() == null || jwt.getExpiresAt() == null) {
+            return extractAuthorities(jwt);
+        }
+        return authorityCache.get(jwt.getId() + ":" + jwt.getExpiresAt().getEpochSecond(), key -> extractAuthorities(jwt));
+    }
+
+    private Collection<GrantedAuthority> extractAuthorities(Jwt jwt) {
         Map<String, Object> realmAccess = (Map<String, Object>) jwt.getClaims().get("realm_access");
         if (realmAccess == null || realmAccess.isEmpty()) {
             return List.of();
@@ -23,7 +44,25 @@ public class KeycloakRoleConverter implements Converter<Jwt, Collection<GrantedA
         Collection<String> roles = (Collection<String>) realmAccess.get("roles");
         return roles.stream()
                 .map(role -> new SimpleGrantedAuthority("ROLE_" + role.toUpperCase()))
-                .collect(Collectors.toList());
+                .collect(Collectors.toUnmodifiableList());
     }
-}
 
+    // Khóa có dạng "jti:exp" nên lấy exp từ khóa để tính thời gian sống
+    private static class TokenExpiry implements Expiry<String, Collection<GrantedAuthority>> {
+        @Override
+        public long expireAfterCreate(String key, Collection<GrantedAuthority> value, long currentTime) {
+            long expiresAt = Long.parseLong(key.substring(key.lastIndexOf(':') + 1));
+            return Math.max(0, Duration.between(Instant.now(), Instant.ofEpochSecond(expiresAt)).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Collection<GrantedAuthority> value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String key, Collection<GrantedAuthority> value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
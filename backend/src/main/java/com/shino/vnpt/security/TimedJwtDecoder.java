@@ -0,0 +1,39 @@
+package com.shino.vnpt.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Đo thời gian giải mã + xác thực JWT cho mỗi request (security.jwt.validation, tag outcome).
+ */
+public class TimedJwtDecoder implements JwtDecoder {
+    private final JwtDecoder delegate;
+    private final Timer successTimer;
+    private final Timer failureTimer;
+
+    public TimedJwtDecoder(JwtDecoder delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.successTimer = Timer.builder("security.jwt.validation").tag("outcome", "success")
+                .publishPercentileHistogram().register(meterRegistry);
+        this.failureTimer = Timer.builder("security.jwt.validation").tag("outcome", "failure")
+                .publishPercentileHistogram().register(meterRegistry);
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        long start = System.nanoTime();
+        try {
+            Jwt jwt = delegate.decode(token);
+            successTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return jwt;
+        } catch (JwtException e) {
+            failureTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+}
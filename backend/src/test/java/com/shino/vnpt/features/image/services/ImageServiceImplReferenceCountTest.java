@@ -0,0 +1,211 @@
+package com.shino.vnpt.features.image.services;
+
+import com.shino.vnpt.features.image.cache.ImageMetadataCache;
+import com.shino.vnpt.features.image.config.ImageUploadProperties;
+import com.shino.vnpt.features.image.config.ImageVariantProperties;
+import com.shino.vnpt.features.image.document.ImageDocument;
+import com.shino.vnpt.features.image.repository.ImageRepository;
+import com.shino.vnpt.features.image.storage.ImageStorage;
+import com.shino.vnpt.features.image.utils.ImageProcessor;
+import com.mongodb.client.result.UpdateResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Đếm tham chiếu với ảnh cũ chưa có referenceCount. MongoTemplate được thay bằng một collection trong bộ nhớ
+ * hiểu đúng các toán tử mà ImageServiceImpl dùng ($gt, $lte, $exists, $or, $inc, $set/$add/$ifNull, $unset).
+ */
+class ImageServiceImplReferenceCountTest {
+    private final Map<String, Document> images = new LinkedHashMap<>();
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final ImageRepository imageRepository = mock(ImageRepository.class);
+    private final ImageStorage imageStorage = mock(ImageStorage.class);
+    private ImageServiceImpl imageService;
+
+    @BeforeEach
+    void setUp() {
+        imageService = new ImageServiceImpl(imageRepository, imageStorage, mock(ImageProcessingService.class),
+                mock(ImageVariantService.class), new ImageVariantProperties(), mongoTemplate, new SimpleMeterRegistry(),
+                mock(ImageProcessor.class), new ImageUploadProperties(), mock(ImageMetadataCache.class));
+
+        when(imageRepository.existsById(anyString())).thenAnswer(invocation -> images.containsKey(invocation.<String>getArgument(0)));
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class), eq(ImageDocument.class)))
+                .thenAnswer(invocation -> {
+                    Document image = findFirst(invocation.getArgument(0));
+                    if (image == null) {
+                        return null;
+                    }
+                    apply(image, invocation.getArgument(1));
+                    return toImageDocument(image);
+                });
+        when(mongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), eq(ImageDocument.class)))
+                .thenAnswer(invocation -> {
+                    Document image = findFirst(invocation.getArgument(0));
+                    if (image == null) {
+                        return UpdateResult.acknowledged(0, 0L, null);
+                    }
+                    apply(image, invocation.getArgument(1));
+                    return UpdateResult.acknowledged(1, 1L, null);
+                });
+        when(mongoTemplate.findAndRemove(any(Query.class), eq(ImageDocument.class)))
+                .thenAnswer(invocation -> {
+                    Document image = findFirst(invocation.getArgument(0));
+                    if (image == null) {
+                        return null;
+                    }
+                    images.remove(image.getString("_id"));
+                    return toImageDocument(image);
+                });
+    }
+
+    @Test
+    void legacyImageSharedByTwoIntroducesSurvivesOneRelease() throws Exception {
+        images.put("legacy", new Document("_id", "legacy").append("storageKey", "blob-legacy"));
+
+        assertThat(imageService.addReference("legacy").getReferenceCount()).isEqualTo(2);
+
+        assertThat(imageService.deleteImageById("legacy")).isEqualTo("Reference released");
+        assertThat(images.get("legacy").getInteger("referenceCount")).isEqualTo(1);
+        verify(imageStorage, never()).delete(anyString());
+
+        assertThat(imageService.deleteImageById("legacy")).isEqualTo("Deleted");
+        assertThat(images).doesNotContainKey("legacy");
+        verify(imageStorage).delete("blob-legacy");
+    }
+
+    @Test
+    void addReferenceIncrementsCountedImageAndClearsOrphanMark() {
+        images.put("counted", new Document("_id", "counted").append("referenceCount", 3).append("orphanedAt", "yesterday"));
+
+        ImageDocument imageDocument = imageService.addReference("counted");
+
+        assertThat(imageDocument.getReferenceCount()).isEqualTo(4);
+        assertThat(images.get("counted")).doesNotContainKey("orphanedAt");
+    }
+
+    @Test
+    void addReferenceReturnsNullForMissingImage() {
+        assertThat(imageService.addReference("missing")).isNull();
+    }
+
+    private Document findFirst(Query query) {
+        return images.values().stream()
+                .filter(image -> matches(image, query.getQueryObject()))
+                .findFirst()
+                .orElse(null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static boolean matches(Document image, Document query) {
+        for (Map.Entry<String, Object> entry : query.entrySet()) {
+            if (entry.getKey().equals("$or")) {
+                if (((List<Document>) entry.getValue()).stream().noneMatch(clause -> matches(image, clause))) {
+                    return false;
+                }
+                continue;
+            }
+            Object value = image.get(entry.getKey());
+            if (!(entry.getValue() instanceof Document operators)) {
+                if (!Objects.equals(value, entry.getValue())) {
+                    return false;
+                }
+                continue;
+            }
+            for (Map.Entry<String, Object> operator : operators.entrySet()) {
+                boolean matched = switch (operator.getKey()) {
+                    case "$exists" -> image.containsKey(entry.getKey()) == (Boolean) operator.getValue();
+                    case "$gt" -> value != null && compare(value, operator.getValue()) > 0;
+                    case "$lte" -> value != null && compare(value, operator.getValue()) <= 0;
+                    default -> throw new IllegalArgumentException("Unsupported operator " + operator.getKey());
+                };
+                if (!matched) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void apply(Document image, UpdateDefinition update) {
+        if (update instanceof AggregationUpdate aggregationUpdate) {
+            for (Document stage : aggregationUpdate.toPipeline(Aggregation.DEFAULT_CONTEXT)) {
+                if (stage.containsKey("$set")) {
+                    Document fields = (Document) stage.get("$set");
+                    Document computed = new Document();
+                    fields.forEach((field, expression) -> computed.put(field, evaluate(image, expression)));
+                    image.putAll(computed);
+                } else if (stage.containsKey("$unset")) {
+                    Object fields = stage.get("$unset");
+                    (fields instanceof List ? (List<String>) fields : List.of((String) fields)).forEach(image::remove);
+                } else {
+                    throw new IllegalArgumentException("Unsupported stage " + stage.toJson());
+                }
+            }
+            return;
+        }
+
+        Document updateObject = update.getUpdateObject();
+        updateObject.forEach((operator, fields) -> ((Document) fields).forEach((field, argument) -> {
+            switch (operator) {
+                case "$inc" -> image.put(field, (image.get(field) != null ? ((Number) image.get(field)).intValue() : 0) + ((Number) argument).intValue());
+                case "$set" -> image.put(field, argument);
+                case "$unset" -> image.remove(field);
+                default -> throw new IllegalArgumentException("Unsupported operator " + operator);
+            }
+        }));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object evaluate(Document image, Object expression) {
+        if (expression instanceof String path && path.startsWith("$")) {
+            return image.get(path.substring(1));
+        }
+        if (!(expression instanceof Document operator)) {
+            return expression;
+        }
+        List<Object> arguments = (List<Object>) operator.values().iterator().next();
+        return switch (operator.keySet().iterator().next()) {
+            case "$add" -> arguments.stream().mapToInt(argument -> ((Number) evaluate(image, argument)).intValue()).sum();
+            case "$ifNull" -> {
+                Object value = evaluate(image, arguments.get(0));
+                yield value != null ? value : evaluate(image, arguments.get(1));
+            }
+            default -> throw new IllegalArgumentException("Unsupported expression " + operator.toJson());
+        };
+    }
+
+    private static int compare(Object value, Object argument) {
+        return Double.compare(((Number) value).doubleValue(), ((Number) argument).doubleValue());
+    }
+
+    private static ImageDocument toImageDocument(Document image) {
+        ImageDocument imageDocument = new ImageDocument();
+        imageDocument.setId(image.getString("_id"));
+        imageDocument.setStorageKey(image.getString("storageKey"));
+        imageDocument.setReferenceCount(image.getInteger("referenceCount"));
+        return imageDocument;
+    }
+}
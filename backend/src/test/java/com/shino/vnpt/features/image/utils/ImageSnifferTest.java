@@ -0,0 +1,119 @@
+package com.shino.vnpt.features.image.utils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageSnifferTest {
+    private final ImageProcessor imageProcessor = new ImageProcessor(new SimpleMeterRegistry(), 0.7f, 2560);
+
+    @Test
+    void pngIsDetectedAndMeasured() throws IOException {
+        assertDetectedWithDimensions(encode("png", 37, 21), "image/png", 37, 21);
+    }
+
+    @Test
+    void jpegIsDetectedAndMeasured() throws IOException {
+        assertDetectedWithDimensions(encode("jpg", 64, 48), "image/jpeg", 64, 48);
+    }
+
+    @Test
+    void gifIsDetectedAndMeasured() throws IOException {
+        assertDetectedWithDimensions(encode("gif", 15, 9), "image/gif", 15, 9);
+    }
+
+    @Test
+    void lossyWebpIsDetectedAndMeasured() throws IOException {
+        byte[] image = webp("VP8 ");
+        image[20] = 0x50;
+        image[21] = 0x02;
+        image[22] = 0x00;
+        image[23] = (byte) 0x9D;
+        image[24] = 0x01;
+        image[25] = 0x2A;
+        writeLittleEndian(image, 26, 2, 1920);
+        // 2 bit cao là hệ số scale, không thuộc kích thước
+        writeLittleEndian(image, 28, 2, 1080 | 0x4000);
+
+        assertDetectedWithDimensions(image, "image/webp", 1920, 1080);
+    }
+
+    @Test
+    void losslessWebpIsDetectedAndMeasured() throws IOException {
+        byte[] image = webp("VP8L");
+        image[20] = 0x2F;
+        writeLittleEndian(image, 21, 4, (400 - 1) | ((300 - 1) << 14));
+
+        assertDetectedWithDimensions(image, "image/webp", 400, 300);
+    }
+
+    @Test
+    void extendedWebpIsDetectedAndMeasured() throws IOException {
+        byte[] image = webp("VP8X");
+        image[20] = 0x10;
+        writeLittleEndian(image, 24, 3, 5000 - 1);
+        writeLittleEndian(image, 27, 3, 20000 - 1);
+
+        assertDetectedWithDimensions(image, "image/webp", 5000, 20000);
+    }
+
+    @Test
+    void truncatedOrUnknownWebpChunkHasNoDimensions() throws IOException {
+        byte[] unknownChunk = webp("ALPH");
+        assertThat(ImageSniffer.detectContentType(unknownChunk)).isEqualTo("image/webp");
+        assertThat(imageProcessor.readDimensions(new ByteArrayInputStream(unknownChunk))).isNull();
+
+        byte[] truncated = new byte[16];
+        System.arraycopy(webp("VP8X"), 0, truncated, 0, truncated.length);
+        assertThat(ImageSniffer.readWebpDimensions(truncated)).isNull();
+    }
+
+    @Test
+    void unknownFormatIsRejected() {
+        assertThat(ImageSniffer.detectContentType("%PDF-1.7 hello".getBytes(StandardCharsets.US_ASCII))).isNull();
+        assertThat(ImageSniffer.detectContentType(new byte[0])).isNull();
+    }
+
+    private void assertDetectedWithDimensions(byte[] image, String contentType, int width, int height) throws IOException {
+        // Sniffer chỉ mark/reset: stream vẫn đọc lại được từ đầu
+        BufferedInputStream inputStream = new BufferedInputStream(new ByteArrayInputStream(image));
+        assertThat(ImageSniffer.detectContentType(inputStream)).isEqualTo(contentType);
+        assertThat(inputStream.readAllBytes()).isEqualTo(image);
+
+        assertThat(imageProcessor.readDimensions(new ByteArrayInputStream(image))).isEqualTo(new Dimension(width, height));
+    }
+
+    private static byte[] encode(String format, int width, int height) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        assertThat(ImageIO.write(image, format, outputStream)).isTrue();
+        return outputStream.toByteArray();
+    }
+
+    // RIFF header + chunk header; phần còn lại do từng test điền
+    private static byte[] webp(String chunk) {
+        byte[] image = new byte[64];
+        System.arraycopy("RIFF".getBytes(StandardCharsets.US_ASCII), 0, image, 0, 4);
+        writeLittleEndian(image, 4, 4, image.length - 8);
+        System.arraycopy("WEBP".getBytes(StandardCharsets.US_ASCII), 0, image, 8, 4);
+        System.arraycopy(chunk.getBytes(StandardCharsets.US_ASCII), 0, image, 12, 4);
+        writeLittleEndian(image, 16, 4, image.length - 20);
+        return image;
+    }
+
+    private static void writeLittleEndian(byte[] target, int offset, int length, int value) {
+        for (int i = 0; i < length; i++) {
+            target[offset + i] = (byte) (value >>> (8 * i));
+        }
+    }
+}
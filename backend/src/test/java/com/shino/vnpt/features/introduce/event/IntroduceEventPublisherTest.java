@@ -0,0 +1,132 @@
+package com.shino.vnpt.features.introduce.event;
+
+import com.shino.vnpt.features.introduce.dto.response.IntroduceChangeEvent;
+import com.shino.vnpt.features.introduce.enums.IntroduceChangeType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IntroduceEventPublisherTest {
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void stuckSendIsDroppedOnHeartbeatAfterSendTimeout() throws Exception {
+        IntroduceEventPublisher publisher = publisher(16, Duration.ofMillis(50));
+        BlockingSink stuck = new BlockingSink();
+        publisher.subscribe(null, stuck);
+
+        publisher.publishLocal(IntroduceChangeType.CREATED, "a", null);
+        assertThat(stuck.sending.await(5, TimeUnit.SECONDS)).isTrue();
+
+        Thread.sleep(100);
+        publisher.heartbeat();
+
+        assertThat(stuck.closed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(stuck.interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(meterRegistry.counter("introduce.events.dropped-subscribers").count()).isEqualTo(1);
+        assertThat(meterRegistry.get("introduce.events.subscribers").gauge().value()).isZero();
+    }
+
+    @Test
+    void slowSendWithinTimeoutIsKept() throws Exception {
+        IntroduceEventPublisher publisher = publisher(16, Duration.ofMinutes(1));
+        BlockingSink slow = new BlockingSink();
+        publisher.subscribe(null, slow);
+
+        publisher.publishLocal(IntroduceChangeType.CREATED, "a", null);
+        assertThat(slow.sending.await(5, TimeUnit.SECONDS)).isTrue();
+        publisher.heartbeat();
+
+        assertThat(slow.closed.getCount()).isEqualTo(1);
+        assertThat(meterRegistry.counter("introduce.events.dropped-subscribers").count()).isZero();
+        slow.release.countDown();
+    }
+
+    @Test
+    void overflowingQueueDropsOnlyTheSlowSubscriber() throws Exception {
+        IntroduceEventPublisher publisher = publisher(4, Duration.ofMinutes(1));
+        BlockingSink slow = new BlockingSink();
+        RecordingSink fast = new RecordingSink();
+        publisher.subscribe(null, slow);
+        publisher.subscribe(null, fast);
+
+        publisher.publishLocal(IntroduceChangeType.CREATED, "first", null);
+        assertThat(slow.sending.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(fast.ids.poll(5, TimeUnit.SECONDS)).isEqualTo("first");
+        // Client nhanh nhận kịp từng event nên hàng đợi của nó không bao giờ đầy
+        for (int i = 0; i < 5; i++) {
+            publisher.publishLocal(IntroduceChangeType.UPDATED, "id-" + i, null);
+            assertThat(fast.ids.poll(5, TimeUnit.SECONDS)).isEqualTo("id-" + i);
+        }
+
+        assertThat(slow.closed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(fast.closed).isFalse();
+    }
+
+    private IntroduceEventPublisher publisher(int maxPending, Duration sendTimeout) {
+        return new IntroduceEventPublisher(executor, meterRegistry, 256, maxPending, sendTimeout, "service");
+    }
+
+    // Lần gửi đầu tiên bị treo cho tới khi release hoặc bị interrupt, giống client không đọc socket
+    private static final class BlockingSink implements IntroduceEventPublisher.EventSink {
+        final CountDownLatch sending = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        final CountDownLatch closed = new CountDownLatch(1);
+
+        @Override
+        public void send(IntroduceChangeEvent event) throws Exception {
+            sending.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+        }
+
+        @Override
+        public void heartbeat() {
+        }
+
+        @Override
+        public void close() {
+            closed.countDown();
+        }
+    }
+
+    private static final class RecordingSink implements IntroduceEventPublisher.EventSink {
+        final BlockingQueue<String> ids = new LinkedBlockingQueue<>();
+        volatile boolean closed;
+
+        @Override
+        public void send(IntroduceChangeEvent event) {
+            ids.add(event.getId());
+        }
+
+        @Override
+        public void heartbeat() {
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
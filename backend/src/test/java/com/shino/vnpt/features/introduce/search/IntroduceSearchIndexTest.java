@@ -0,0 +1,106 @@
+package com.shino.vnpt.features.introduce.search;
+
+import com.shino.vnpt.features.introduce.document.IntroduceDocument;
+import com.shino.vnpt.features.introduce.dto.response.IntroduceSearchResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IntroduceSearchIndexTest {
+
+    @Test
+    void isOneEditApartAcceptsSingleEdits() {
+        assertThat(IntroduceSearchIndex.isOneEditApart("production", "production")).isTrue();
+        assertThat(IntroduceSearchIndex.isOneEditApart("production", "prodxction")).isTrue();
+        assertThat(IntroduceSearchIndex.isOneEditApart("production", "prodution")).isTrue();
+        assertThat(IntroduceSearchIndex.isOneEditApart("production", "productiion")).isTrue();
+        assertThat(IntroduceSearchIndex.isOneEditApart("production", "prodcution")).isTrue();
+    }
+
+    @Test
+    void isOneEditApartRejectsTwoOrMoreEdits() {
+        assertThat(IntroduceSearchIndex.isOneEditApart("production", "prxdxction")).isFalse();
+        assertThat(IntroduceSearchIndex.isOneEditApart("production", "prodtion")).isFalse();
+        assertThat(IntroduceSearchIndex.isOneEditApart("production", "rpodcution")).isFalse();
+        assertThat(IntroduceSearchIndex.isOneEditApart("abcd", "badc")).isFalse();
+    }
+
+    @Test
+    void fuzzyMatchFindsTermsOneEditAway() {
+        IntroduceSearchIndex index = new IntroduceSearchIndex();
+        index.index(introduce("1", "Production dashboard", "Staging"));
+        index.index(introduce("2", "Monitoring", "Staging"));
+
+        assertThat(ids(index.search("prodcution", null, null, 0, 10))).containsExactly("1");
+        assertThat(ids(index.search("prodution", null, null, 0, 10))).containsExactly("1");
+        assertThat(ids(index.search("productiion", null, null, 0, 10))).containsExactly("1");
+        assertThat(ids(index.search("prxduction", null, null, 0, 10))).containsExactly("1");
+        assertThat(ids(index.search("pxodcution", null, null, 0, 10))).isEmpty();
+    }
+
+    @Test
+    void fuzzyMatchIsSkippedForShortTokens() {
+        IntroduceSearchIndex index = new IntroduceSearchIndex();
+        index.index(introduce("1", "Cat", "Staging"));
+
+        assertThat(ids(index.search("cut", null, null, 0, 10))).isEmpty();
+    }
+
+    @Test
+    void searchIgnoresDiacritics() {
+        IntroduceSearchIndex index = new IntroduceSearchIndex();
+        index.index(introduce("1", "Cổng thông tin Hà Nội", "Production"));
+
+        assertThat(ids(index.search("cong thong tin", null, null, 0, 10))).containsExactly("1");
+        assertThat(ids(index.search("HÀ NỘI", null, null, 0, 10))).containsExactly("1");
+    }
+
+    @Test
+    void prefixExpansionKeepsClosestTermsWhenTruncating() {
+        IntroduceSearchIndex index = new IntroduceSearchIndex();
+        // Hơn MAX_PREFIX_EXPANSIONS term dài đứng trước "prefixz" theo thứ tự chữ cái
+        for (int i = 0; i < 100; i++) {
+            String suffix = "" + (char) ('a' + i / 26) + (char) ('a' + i % 26);
+            index.index(introduce("long-" + i, "prefixa" + suffix, "Staging"));
+        }
+        index.index(introduce("short", "prefixz", "Staging"));
+
+        assertThat(ids(index.search("prefix", null, null, 0, 100))).contains("short");
+    }
+
+    @Test
+    void rebuildReplaysWritesMadeWhileLoading() {
+        IntroduceSearchIndex index = new IntroduceSearchIndex();
+        index.index(introduce("1", "Alpha", "Staging"));
+        index.index(introduce("2", "Beta", "Staging"));
+
+        index.rebuild(() -> {
+            // Bản chụp được đọc trước khi các lệnh ghi dưới đây xảy ra
+            List<IntroduceDocument> snapshot = new ArrayList<>(List.of(introduce("1", "Alpha", "Staging"), introduce("2", "Beta", "Staging")));
+            index.remove("2");
+            index.index(introduce("3", "Gamma", "Staging"));
+            index.index(introduce("1", "Alpha renamed", "Staging"));
+            return snapshot;
+        });
+
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(ids(index.search("beta", null, null, 0, 10))).isEmpty();
+        assertThat(ids(index.search("gamma", null, null, 0, 10))).containsExactly("3");
+        assertThat(ids(index.search("renamed", null, null, 0, 10))).containsExactly("1");
+    }
+
+    private static IntroduceDocument introduce(String id, String title, String tag) {
+        IntroduceDocument introduceDocument = new IntroduceDocument();
+        introduceDocument.setId(id);
+        introduceDocument.setTitle(title);
+        introduceDocument.setTag(tag);
+        return introduceDocument;
+    }
+
+    private static List<String> ids(IntroduceSearchResponse response) {
+        return response.getItems().stream().map(IntroduceDocument::getId).toList();
+    }
+}
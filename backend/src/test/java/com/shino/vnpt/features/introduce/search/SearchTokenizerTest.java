@@ -0,0 +1,36 @@
+package com.shino.vnpt.features.introduce.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchTokenizerTest {
+
+    @Test
+    void normalizeRemovesVietnameseDiacritics() {
+        assertThat(SearchTokenizer.normalize("Sản phẩm Đường Hà Nội")).isEqualTo("san pham duong ha noi");
+        assertThat(SearchTokenizer.normalize("ĐĂNG KÝ dịch vụ")).isEqualTo("dang ky dich vu");
+    }
+
+    @Test
+    void normalizeHandlesPrecomposedAndDecomposedInput() {
+        String precomposed = "Việt";
+        String decomposed = "Việt";
+        assertThat(SearchTokenizer.normalize(precomposed)).isEqualTo("viet");
+        assertThat(SearchTokenizer.normalize(decomposed)).isEqualTo("viet");
+    }
+
+    @Test
+    void tokenizeSplitsOnNonAlphanumeric() {
+        assertThat(SearchTokenizer.tokenize("VNPT-Cloud, Hệ thống #1!")).isEqualTo(List.of("vnpt", "cloud", "he", "thong", "1"));
+    }
+
+    @Test
+    void tokenizeReturnsEmptyForBlankInput() {
+        assertThat(SearchTokenizer.tokenize(null)).isEmpty();
+        assertThat(SearchTokenizer.tokenize("  ")).isEmpty();
+        assertThat(SearchTokenizer.tokenize("--")).isEmpty();
+    }
+}
@@ -6,11 +6,18 @@ export const API_BASE_URL_1 = `${API_URL}/api/v1/introduce`;
 export const API_BASE_URL_2 = `${API_URL}/api/v1/image`;
 export const API_BASE_URL_3 = `${API_URL}/api/v1/admin/introduce`;
 
+// Danh sách kèm metadata ảnh (imageInfo) trong một request, không cần gọi get-image-by-id cho từng thẻ
 export async function getAllIntroduces() {
-    const response = await axios.get(`${API_BASE_URL_1}/all`);
+    const response = await axios.get(`${API_BASE_URL_1}/all-with-images`);
     return response.data;
 }
 
+// URL ảnh gốc lấy từ imageInfo; null nếu introduce chưa có metadata ảnh
+export function getImageUrl(item) {
+    const imageInfo = item.imageInfo && item.imageInfo[0];
+    return imageInfo && imageInfo.url ? `${API_URL}${imageInfo.url}` : null;
+}
+
 export async function getImageById(id) {
     const response = await axios.get(`${API_BASE_URL_2}/get-image-by-id/${id}`);
     return response.data;